@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks rendering of a conversation containing generated plans, with and
+ * without the render cache, and of a half-streamed response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatMessageRendererBenchmark {
+
+    private static final int EXCHANGES = 10;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private PlanCorpus.Size size;
+
+    private List<ChatMessage> messages;
+    private String partialResponse;
+    private ChatMessageRenderer cachingRenderer;
+    private ChatMessageRenderer uncachedRenderer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String response = PlanCorpus.response(size);
+        messages = new ArrayList<>();
+        for (int i = 0; i < EXCHANGES; i++) {
+            messages.add(new ChatMessage(ChatMessage.Role.USER, "Create a load test for the API, variant " + i));
+            messages.add(new ChatMessage(ChatMessage.Role.ASSISTANT, response));
+        }
+        partialResponse = response.substring(0, response.length() / 2);
+        cachingRenderer = new ChatMessageRenderer();
+        uncachedRenderer = new ChatMessageRenderer(0);
+    }
+
+    @Benchmark
+    public String renderMessagesCached() {
+        return cachingRenderer.renderMessages(messages);
+    }
+
+    @Benchmark
+    public String renderMessagesUncached() {
+        return uncachedRenderer.renderMessages(messages);
+    }
+
+    @Benchmark
+    public String renderStreamingMessage() {
+        return uncachedRenderer.renderStreamingMessage(partialResponse);
+    }
+}
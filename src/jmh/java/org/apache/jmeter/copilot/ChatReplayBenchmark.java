@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.swing.SwingUtilities;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks complete chat turns replayed through a headless chat panel.
+ * Each turn is sent from the panel's input box, streamed through the delta
+ * coalescer and the in-place streaming updater, and ends once the panel has
+ * handled the final response and the Event Dispatch Thread has run the
+ * updates it queued. Replays run without delays, so the score is the
+ * plugin's own cost per turn, EDT work included; {@code -prof gc} shows what
+ * the panel allocates per turn.
+ * <p>
+ * A recording made with {@code copilot.events.record_file} can be replayed
+ * with {@code -p recording=/path/to/events.tsv}; by default a response of the
+ * selected plan size is streamed in 40-character chunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatReplayBenchmark {
+
+    private static final String PROMPT = "Create a load test for the API";
+    private static final long TURN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int CHUNK_LENGTH = 40;
+    private static final int CHUNK_INTERVAL_MILLIS = 20;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private PlanCorpus.Size size;
+
+    @Param({""})
+    private String recording;
+
+    private Path syntheticRecording;
+    private SessionEventReplayer replayer;
+    private CopilotChatService service;
+    private CopilotChatPanel panel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path file;
+        if (recording.isEmpty()) {
+            syntheticRecording = writeSyntheticRecording(PlanCorpus.response(size));
+            file = syntheticRecording;
+        } else {
+            file = Path.of(recording);
+        }
+        replayer = SessionEventReplayer.load(file);
+        // The panel is never shown, so it needs no display
+        System.setProperty("java.awt.headless", "true");
+        service = new CopilotChatService(ReplayCopilotClient.create(replayer, Double.POSITIVE_INFINITY));
+        service.connect().get(10, TimeUnit.SECONDS);
+        SwingUtilities.invokeAndWait(() -> panel = new CopilotChatPanel(service, new JMeterXmlParser()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        panel.disconnect();
+        replayer.close();
+        if (syntheticRecording != null) {
+            Files.deleteIfExists(syntheticRecording);
+        }
+    }
+
+    @Benchmark
+    public ChatMessage replayTurn() throws Exception {
+        ChatMessage[] previous = new ChatMessage[1];
+        SwingUtilities.invokeAndWait(() -> {
+            previous[0] = lastMessage();
+            panel.getInputArea().setText(PROMPT);
+            panel.getSendButton().doClick();
+        });
+        long deadline = System.nanoTime() + TURN_TIMEOUT_NANOS;
+        ChatMessage[] response = new ChatMessage[1];
+        while (response[0] == null) {
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("The replayed turn did not finish");
+            }
+            // Each round trip runs everything queued on the EDT before it
+            SwingUtilities.invokeAndWait(() -> {
+                ChatMessage last = lastMessage();
+                if (!panel.isProcessing() && last != previous[0] && last != null
+                        && last.getRole() == ChatMessage.Role.ASSISTANT) {
+                    response[0] = last;
+                }
+            });
+        }
+        // Scrolling is queued by the final refresh
+        SwingUtilities.invokeAndWait(() -> { });
+        return response[0];
+    }
+
+    private ChatMessage lastMessage() {
+        List<ChatMessage> messages = service.getConversationHistory().getMessages();
+        return messages.isEmpty() ? null : messages.get(messages.size() - 1);
+    }
+
+    private static Path writeSyntheticRecording(String content) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("0\t" + SessionEventRecorder.PROMPT + "\t");
+        long offset = 0;
+        for (int i = 0; i < content.length(); i += CHUNK_LENGTH) {
+            offset += CHUNK_INTERVAL_MILLIS;
+            String chunk = content.substring(i, Math.min(content.length(), i + CHUNK_LENGTH));
+            lines.add(offset + "\t" + SessionEventRecorder.DELTA + "\t" + SessionEventRecorder.escape(chunk));
+        }
+        lines.add(offset + "\t" + SessionEventRecorder.MESSAGE + "\t" + SessionEventRecorder.escape(content));
+        lines.add(offset + "\t" + SessionEventRecorder.IDLE + "\t");
+        Path file = Files.createTempFile("copilot-replay-", ".tsv");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks adding messages to a full history, so every addition evicts.
+ * With generated plans as answers the token budget is exceeded as well, which
+ * exercises compaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversationHistoryBenchmark {
+
+    private static final int MAX_MESSAGES = 100;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private PlanCorpus.Size size;
+
+    private ConversationHistory history;
+    private ChatMessage question;
+    private ChatMessage answer;
+    private boolean nextIsQuestion;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = new ConversationHistory(MAX_MESSAGES);
+        question = new ChatMessage(ChatMessage.Role.USER, "Add a JSON extractor to every request");
+        answer = new ChatMessage(ChatMessage.Role.ASSISTANT, PlanCorpus.response(size));
+        for (int i = 0; i < MAX_MESSAGES; i++) {
+            addNext();
+        }
+    }
+
+    @Benchmark
+    public int addMessageWithEviction() {
+        addNext();
+        return history.size();
+    }
+
+    private void addNext() {
+        history.addMessage(nextIsQuestion ? question : answer);
+        nextIsQuestion = !nextIsQuestion;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.util.JMeterUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks XML extraction and parsing of generated plans.
+ * <p>
+ * Parsing goes through SaveService, which needs a JMeter installation; its
+ * location is read from the {@code jmeter.home} system property, which the
+ * {@code benchmarks} profile sets from the POM property of the same name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JMeterXmlParserBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private PlanCorpus.Size size;
+
+    private String response;
+    private JMeterXmlParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        response = PlanCorpus.response(size);
+        // Disable the parse cache so every invocation does the full parse
+        parser = new JMeterXmlParser(0);
+    }
+
+    @Benchmark
+    public Optional<String> extractXmlFromText() {
+        return parser.extractXmlFromText(response);
+    }
+
+    @Benchmark
+    public JMeterXmlParser.ParseResult parseXml(JMeterHome home) {
+        return parser.parseXml(response);
+    }
+
+    /**
+     * Initializes JMeter once per trial for the benchmarks that need SaveService.
+     */
+    @State(Scope.Benchmark)
+    public static class JMeterHome {
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            String home = System.getProperty("jmeter.home");
+            File properties = new File(home, "bin/jmeter.properties");
+            if (home == null || !properties.isFile()) {
+                throw new IllegalStateException(
+                    "parseXml needs a JMeter installation; set -Djmeter.home (currently " + home + ")");
+            }
+            JMeterUtils.setJMeterHome(home);
+            JMeterUtils.loadJMeterProperties(properties.getPath());
+            JMeterUtils.initLocale();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+/**
+ * Deterministic corpus of generated test plans for the benchmarks.
+ * <p>
+ * Plans are built the way Copilot answers: a short introduction, the plan in
+ * a ```xml block and some closing prose. Generating them keeps multi-megabyte
+ * fixtures out of the repository while every run sees the same input.
+ */
+public final class PlanCorpus {
+
+    /**
+     * Plan sizes, by number of test elements.
+     */
+    public enum Size {
+        /** One thread group with a few samplers, as for a quick smoke test. */
+        SMALL(1, 3),
+        /** A typical generated plan of about 200 elements. */
+        MEDIUM(4, 16),
+        /** About 10,000 elements. */
+        LARGE(40, 83);
+
+        private final int threadGroups;
+        private final int samplersPerGroup;
+
+        Size(int threadGroups, int samplersPerGroup) {
+            this.threadGroups = threadGroups;
+            this.samplersPerGroup = samplersPerGroup;
+        }
+    }
+
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+    private static final String[] RESOURCES = {"users", "orders", "products", "carts", "payments"};
+
+    private PlanCorpus() {
+    }
+
+    /**
+     * Returns the test plan XML of the given size. Every sampler has a header
+     * manager and a response assertion, and every thread group a timer and a
+     * listener, so the element count is about
+     * {@code threadGroups * (3 * samplersPerGroup + 3)}.
+     */
+    static String planXml(Size size) {
+        StringBuilder xml = new StringBuilder(1024 + size.threadGroups * size.samplersPerGroup * 1500);
+        xml.append("""
+            <?xml version="1.0" encoding="UTF-8"?>
+            <jmeterTestPlan version="1.2" properties="5.0" jmeter="5.6.3">
+              <hashTree>
+                <TestPlan guiclass="TestPlanGui" testclass="TestPlan" testname="%s API Load Test">
+                  <boolProp name="TestPlan.functional_mode">false</boolProp>
+                  <boolProp name="TestPlan.serialize_threadgroups">false</boolProp>
+                  <elementProp name="TestPlan.user_defined_variables" elementType="Arguments">
+                    <collectionProp name="Arguments.arguments"/>
+                  </elementProp>
+                </TestPlan>
+                <hashTree>
+            """.formatted(size.name()));
+
+        for (int group = 0; group < size.threadGroups; group++) {
+            appendThreadGroup(xml, group, size.samplersPerGroup);
+        }
+
+        xml.append("""
+                </hashTree>
+              </hashTree>
+            </jmeterTestPlan>
+            """);
+        return xml.toString();
+    }
+
+    /**
+     * Returns a Copilot response embedding the plan of the given size.
+     */
+    static String response(Size size) {
+        return "Here's a JMeter test plan that load tests the API endpoints you described:\n\n"
+            + "```xml\n" + planXml(size) + "```\n\n"
+            + "The plan uses **" + size.threadGroups + " thread group(s)**. Each request checks for a "
+            + "`200` response code. You can run it headless with `jmeter -n -t api-load-test.jmx`.\n";
+    }
+
+    private static void appendThreadGroup(StringBuilder xml, int group, int samplers) {
+        xml.append("""
+                  <ThreadGroup guiclass="ThreadGroupGui" testclass="ThreadGroup" testname="Users %d">
+                    <intProp name="ThreadGroup.num_threads">%d</intProp>
+                    <intProp name="ThreadGroup.ramp_time">30</intProp>
+                    <stringProp name="ThreadGroup.on_sample_error">continue</stringProp>
+                    <elementProp name="ThreadGroup.main_controller" elementType="LoopController">
+                      <stringProp name="LoopController.loops">10</stringProp>
+                      <boolProp name="LoopController.continue_forever">false</boolProp>
+                    </elementProp>
+                  </ThreadGroup>
+                  <hashTree>
+                    <ConstantTimer guiclass="ConstantTimerGui" testclass="ConstantTimer" testname="Think Time">
+                      <stringProp name="ConstantTimer.delay">300</stringProp>
+                    </ConstantTimer>
+                    <hashTree/>
+            """.formatted(group, 10 + group % 90));
+
+        for (int i = 0; i < samplers; i++) {
+            appendSampler(xml, group, i);
+        }
+
+        xml.append("""
+                    <ResultCollector guiclass="SummaryReport" testclass="ResultCollector" testname="Summary Report">
+                      <boolProp name="ResultCollector.error_logging">false</boolProp>
+                      <stringProp name="filename"></stringProp>
+                    </ResultCollector>
+                    <hashTree/>
+                  </hashTree>
+            """);
+    }
+
+    private static void appendSampler(StringBuilder xml, int group, int index) {
+        String method = METHODS[(group + index) % METHODS.length];
+        String resource = RESOURCES[index % RESOURCES.length];
+        xml.append("""
+                    <HTTPSamplerProxy guiclass="HttpTestSampleGui" testclass="HTTPSamplerProxy" testname="%s /%s %d-%d">
+                      <stringProp name="HTTPSampler.domain">api.example.com</stringProp>
+                      <stringProp name="HTTPSampler.protocol">https</stringProp>
+                      <stringProp name="HTTPSampler.path">/v1/%s/${id}</stringProp>
+                      <stringProp name="HTTPSampler.method">%s</stringProp>
+                      <boolProp name="HTTPSampler.follow_redirects">true</boolProp>
+                      <boolProp name="HTTPSampler.use_keepalive">true</boolProp>
+                      <elementProp name="HTTPsampler.Arguments" elementType="Arguments">
+                        <collectionProp name="Arguments.arguments"/>
+                      </elementProp>
+                    </HTTPSamplerProxy>
+                    <hashTree>
+                      <HeaderManager guiclass="HeaderPanel" testclass="HeaderManager" testname="Headers">
+                        <collectionProp name="HeaderManager.headers">
+                          <elementProp name="" elementType="Header">
+                            <stringProp name="Header.name">Content-Type</stringProp>
+                            <stringProp name="Header.value">application/json</stringProp>
+                          </elementProp>
+                        </collectionProp>
+                      </HeaderManager>
+                      <hashTree/>
+                      <ResponseAssertion guiclass="AssertionGui" testclass="ResponseAssertion" testname="Status 200">
+                        <collectionProp name="Asserion.test_strings">
+                          <stringProp name="49586">200</stringProp>
+                        </collectionProp>
+                        <stringProp name="Assertion.test_field">Assertion.response_code</stringProp>
+                        <intProp name="Assertion.test_type">8</intProp>
+                      </ResponseAssertion>
+                      <hashTree/>
+                    </hashTree>
+            """.formatted(method, resource, group, index, resource, method));
+    }
+}
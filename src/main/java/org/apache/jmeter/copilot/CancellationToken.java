@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Signals that the work started for a turn is no longer wanted, e.g. because
+ * the user aborted the response, cleared the conversation or sent another
+ * prompt. Long-running work checks the token and stops early; work that
+ * can't check it registers a callback instead.
+ * <p>
+ * A token is cancelled at most once and stays cancelled.
+ */
+final class CancellationToken {
+
+    private static final Logger LOG = Logger.getLogger(CancellationToken.class.getName());
+
+    /**
+     * A token that is never cancelled.
+     */
+    static final CancellationToken NONE = new CancellationToken();
+
+    private volatile boolean cancelled;
+    private List<Runnable> callbacks = new ArrayList<>(); // Guarded by "this", null once cancelled
+
+    /**
+     * Returns whether the token has been cancelled.
+     */
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Throws a {@link CancellationException} if the token has been cancelled.
+     */
+    void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Cancelled");
+        }
+    }
+
+    /**
+     * Cancels the token and runs the registered callbacks, once.
+     */
+    void cancel() {
+        if (this == NONE) {
+            throw new IllegalStateException("The NONE token cannot be cancelled");
+        }
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toRun = callbacks;
+            callbacks = null;
+        }
+        for (Runnable callback : toRun) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                LOG.log(Level.FINE, "Cancellation callback failed", e);
+            }
+        }
+    }
+
+    /**
+     * Runs the callback when the token is cancelled, or right away if it
+     * already is.
+     */
+    void onCancel(Runnable callback) {
+        if (this == NONE) {
+            return;
+        }
+        synchronized (this) {
+            if (!cancelled) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    /**
+     * Returns a token that is cancelled with this one, and can also be
+     * cancelled on its own.
+     */
+    CancellationToken child() {
+        CancellationToken child = new CancellationToken();
+        onCancel(child::cancel);
+        return child;
+    }
+}
@@ -34,17 +34,24 @@ public class ChatMessage {
     private final Role role;
     private final String content;
     private final long timestamp;
+    private final boolean cached;
 
     public ChatMessage(Role role, String content) {
-        this.role = role;
-        this.content = content;
-        this.timestamp = System.currentTimeMillis();
+        this(role, content, System.currentTimeMillis());
     }
 
     public ChatMessage(Role role, String content, long timestamp) {
+        this(role, content, timestamp, false);
+    }
+
+    /**
+     * Creates a message, flagging whether it was served from the response cache.
+     */
+    public ChatMessage(Role role, String content, long timestamp, boolean cached) {
         this.role = role;
         this.content = content;
         this.timestamp = timestamp;
+        this.cached = cached;
     }
 
     public Role getRole() {
@@ -59,6 +66,14 @@ public class ChatMessage {
         return timestamp;
     }
 
+    /**
+     * Returns whether this response was served from the response cache
+     * instead of being generated by Copilot.
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
     public boolean isFromUser() {
         return role == Role.USER;
     }
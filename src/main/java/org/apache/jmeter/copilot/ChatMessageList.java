@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javax.swing.DefaultListModel;
+import javax.swing.JComponent;
+import javax.swing.JEditorPane;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Virtualized transcript view with one lightweight cell per {@link ChatMessage}.
+ * <p>
+ * Unlike a single {@link JEditorPane} holding the whole conversation, only the
+ * visible messages are laid out and painted. Every cell shares one off-screen
+ * editor pane, and message heights are cached per message and width, so a
+ * long session costs little more to scroll or resize than a short one.
+ * <p>
+ * Heights are re-measured lazily: after a resize or an XML toggle every row
+ * keeps its old height until it is painted, and only the rows painted with a
+ * stale height are laid out again, so a resize costs a few HTML layouts
+ * rather than one per message.
+ * <p>
+ * Must be used on the Event Dispatch Thread.
+ */
+class ChatMessageList extends JList<ChatMessage> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ChatMessageRenderer messageRenderer;
+    private final DefaultListModel<ChatMessage> model = new DefaultListModel<>();
+    private final transient Map<ChatMessage, CellSize> sizeCache = new WeakHashMap<>();
+    // Messages painted with a stale height, to measure on the next layout
+    private final transient Set<ChatMessage> staleVisible = Collections.newSetFromMap(new WeakHashMap<>());
+    private boolean remeasureScheduled;
+    private long measureCount;
+    private transient ChatMessage streamingMessage;
+    private boolean renderedXmlExpanded;
+
+    /**
+     * Cached height of a message rendered at a given width and XML state.
+     */
+    private record CellSize(int width, boolean xmlExpanded, int height) {
+    }
+
+    ChatMessageList(ChatMessageRenderer messageRenderer) {
+        this.messageRenderer = messageRenderer;
+        this.renderedXmlExpanded = messageRenderer.isShowXmlExpanded();
+        setModel(model);
+        setCellRenderer(new MessageCellRenderer());
+        setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        setFocusable(false);
+
+        // Heights depend on the width; rows keep their old height until painted
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                invalidateCellSizes();
+            }
+        });
+    }
+
+    /**
+     * Shows the given messages, reusing cells for messages already displayed.
+     */
+    void setMessages(List<ChatMessage> messages) {
+        removeStreamingMessage();
+
+        boolean expanded = messageRenderer.isShowXmlExpanded();
+        if (expanded != renderedXmlExpanded) {
+            renderedXmlExpanded = expanded;
+            invalidateCellSizes();
+        }
+
+        // Drop messages evicted from the front of the history
+        int offset = 0;
+        if (!messages.isEmpty()) {
+            int firstIndex = model.indexOf(messages.get(0));
+            offset = Math.max(firstIndex, 0);
+        }
+        if (offset > 0) {
+            model.removeRange(0, offset - 1);
+        }
+
+        // Keep the common prefix, replace the rest
+        int common = 0;
+        int limit = Math.min(model.size(), messages.size());
+        while (common < limit && model.get(common) == messages.get(common)) {
+            common++;
+        }
+        if (common < model.size()) {
+            model.removeRange(common, model.size() - 1);
+        }
+        if (common < messages.size()) {
+            model.addAll(messages.subList(common, messages.size()));
+        }
+        repaint();
+    }
+
+    /**
+     * Shows or updates the assistant message that is still being streamed.
+     */
+    void setStreamingContent(String partialContent) {
+        ChatMessage message = new ChatMessage(ChatMessage.Role.ASSISTANT, partialContent);
+        if (streamingMessage != null && !model.isEmpty() && model.lastElement() == streamingMessage) {
+            streamingMessage = message;
+            model.set(model.size() - 1, message);
+        } else {
+            streamingMessage = message;
+            model.addElement(message);
+        }
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        // Messages wrap to the available width instead of scrolling horizontally
+        return true;
+    }
+
+    private void removeStreamingMessage() {
+        if (streamingMessage != null && !model.isEmpty() && model.lastElement() == streamingMessage) {
+            model.remove(model.size() - 1);
+        }
+        streamingMessage = null;
+    }
+
+    /**
+     * Returns the number of HTML layouts done to measure cells.
+     */
+    long getMeasureCount() {
+        return measureCount;
+    }
+
+    private void invalidateCellSizes() {
+        // Toggling the fixed cell height makes the list UI ask every cell for its
+        // size again; only new and stale visible cells are actually measured
+        setFixedCellHeight(1);
+        setFixedCellHeight(-1);
+    }
+
+    private boolean isStale(CellSize size) {
+        return size.width() != cellWidth() || size.xmlExpanded() != renderedXmlExpanded;
+    }
+
+    /**
+     * Measures the message on the next layout, which runs once for all the
+     * stale rows painted in this pass.
+     */
+    private void remeasureWhenVisible(ChatMessage message) {
+        staleVisible.add(message);
+        if (!remeasureScheduled) {
+            remeasureScheduled = true;
+            SwingUtilities.invokeLater(() -> {
+                remeasureScheduled = false;
+                invalidateCellSizes();
+            });
+        }
+    }
+
+    private int cellWidth() {
+        return Math.max(getWidth(), 1);
+    }
+
+    /**
+     * Hands out a single reusable cell; rendering happens lazily when painted.
+     */
+    private class MessageCellRenderer implements ListCellRenderer<ChatMessage> {
+
+        private final MessageCell cell = new MessageCell();
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends ChatMessage> list,
+                ChatMessage value, int index, boolean isSelected, boolean cellHasFocus) {
+            cell.message = value;
+            return cell;
+        }
+    }
+
+    /**
+     * Cell that measures through the size cache and paints through a shared
+     * editor pane, so configuring it for layout is cheap.
+     */
+    private class MessageCell extends JComponent {
+
+        private static final long serialVersionUID = 1L;
+
+        private final JEditorPane editor = messageRenderer.createMessagePane();
+        private transient ChatMessage message;
+        private transient ChatMessage editorMessage;
+        private boolean editorXmlExpanded;
+
+        MessageCell() {
+            add(editor);
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            int width = cellWidth();
+            if (message == streamingMessage) {
+                return new Dimension(width, measure(width));
+            }
+            CellSize size = sizeCache.get(message);
+            if (size == null || (isStale(size) && staleVisible.remove(message))) {
+                size = new CellSize(width, renderedXmlExpanded, measure(width));
+                sizeCache.put(message, size);
+            }
+            return new Dimension(width, size.height());
+        }
+
+        @Override
+        public void paint(Graphics g) {
+            CellSize size = message != streamingMessage ? sizeCache.get(message) : null;
+            if (size != null && isStale(size)) {
+                remeasureWhenVisible(message);
+            }
+            configureEditor();
+            editor.setBounds(0, 0, getWidth(), getHeight());
+            super.paint(g);
+        }
+
+        private int measure(int width) {
+            measureCount++;
+            configureEditor();
+            editor.setSize(width, Short.MAX_VALUE);
+            return editor.getPreferredSize().height;
+        }
+
+        private void configureEditor() {
+            if (editorMessage == message && editorXmlExpanded == renderedXmlExpanded) {
+                return;
+            }
+            String body = messageRenderer.renderListCell(message, message == streamingMessage);
+            editor.setText("<html><body>" + body + "</body></html>");
+            editorMessage = message;
+            editorXmlExpanded = renderedXmlExpanded;
+        }
+    }
+}
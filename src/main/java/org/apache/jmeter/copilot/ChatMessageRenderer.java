@@ -20,8 +20,12 @@ package org.apache.jmeter.copilot;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -128,23 +132,52 @@ public class ChatMessageRenderer {
         }
         """;
 
-    // Pattern to match XML code blocks in markdown (```xml ... ```)
-    private static final Pattern XML_CODE_BLOCK_PATTERN = Pattern.compile(
-        "```xml\\s*\\n([\\s\\S]*?)```",
-        Pattern.CASE_INSENSITIVE
-    );
+    /**
+     * HTML id of the element wrapping the assistant message being streamed.
+     */
+    static final String STREAMING_ELEMENT_ID = "copilot-streaming";
+
+    /**
+     * Shown next to the timestamp of responses served from the response cache.
+     */
+    static final String CACHED_LABEL = "from response cache";
+
+    private static final int DEFAULT_CACHE_SIZE = 512;
 
     private final Parser markdownParser;
     private final HtmlRenderer htmlRenderer;
     private final DateTimeFormatter timeFormatter;
     private final AtomicBoolean showXmlExpanded = new AtomicBoolean(false);
+    private final Map<CacheKey, String> renderCache;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    /**
+     * Cache key for a rendered message. ChatMessage does not override equals,
+     * so messages are compared by identity.
+     */
+    private record CacheKey(ChatMessage message, boolean xmlExpanded) {
+    }
 
     public ChatMessageRenderer() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a renderer that keeps up to {@code cacheSize} rendered messages.
+     */
+    public ChatMessageRenderer(int cacheSize) {
         List<org.commonmark.Extension> extensions = List.of(TablesExtension.create());
         this.markdownParser = Parser.builder().extensions(extensions).build();
         this.htmlRenderer = HtmlRenderer.builder().extensions(extensions).build();
         this.timeFormatter = DateTimeFormatter.ofPattern("HH:mm")
             .withZone(ZoneId.systemDefault());
+        this.renderCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
     }
 
     /**
@@ -190,6 +223,9 @@ public class ChatMessageRenderer {
      * Renders a list of messages as HTML.
      */
     public String renderMessages(java.util.List<ChatMessage> messages) {
+        long start = System.nanoTime();
+        CopilotEvents.Render event = new CopilotEvents.Render();
+        event.begin();
         StringBuilder html = new StringBuilder();
         html.append("<html><body>");
 
@@ -199,13 +235,83 @@ public class ChatMessageRenderer {
 
         html.append("<div class=\"clearfix\"></div>");
         html.append("</body></html>");
+        commitRender(event, start, CopilotEvents.Render.TRANSCRIPT, messages.size(), html.length());
         return html.toString();
     }
 
+    /**
+     * Renders a message for a cell of the message list, as a fragment.
+     *
+     * @param streaming whether the message is the one being streamed
+     */
+    String renderListCell(ChatMessage message, boolean streaming) {
+        if (streaming) {
+            return renderStreamingFragment(message.getContent());
+        }
+        long start = System.nanoTime();
+        CopilotEvents.Render event = new CopilotEvents.Render();
+        event.begin();
+        String html = renderMessage(message);
+        commitRender(event, start, CopilotEvents.Render.LIST_CELL, 1, html.length());
+        return html;
+    }
+
+    private static void commitRender(CopilotEvents.Render event, long start, String pass, int messageCount,
+            int htmlLength) {
+        CopilotMetrics.getInstance().recordSince(CopilotMetrics.Metric.RENDER_TIME, start);
+        event.pass = pass;
+        event.messageCount = messageCount;
+        event.htmlLength = htmlLength;
+        event.commit();
+    }
+
     /**
      * Renders a single message as HTML.
+     * Messages never change once created, so the result is cached per message
+     * and XML expanded state.
      */
     public String renderMessage(ChatMessage message) {
+        CacheKey key = new CacheKey(message, showXmlExpanded.get());
+        synchronized (renderCache) {
+            String cached = renderCache.get(key);
+            if (cached != null) {
+                cacheHits.incrementAndGet();
+                return cached;
+            }
+        }
+        cacheMisses.incrementAndGet();
+
+        String html = doRenderMessage(message, key.xmlExpanded());
+        synchronized (renderCache) {
+            renderCache.put(key, html);
+        }
+        return html;
+    }
+
+    /**
+     * Returns the number of messages served from the render cache.
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns the number of messages that had to be rendered.
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * Discards all cached renderings.
+     */
+    public void clearCache() {
+        synchronized (renderCache) {
+            renderCache.clear();
+        }
+    }
+
+    private String doRenderMessage(ChatMessage message, boolean xmlExpanded) {
         String content = message.getContent();
         
         // Skip rendering messages with empty content
@@ -224,7 +330,7 @@ public class ChatMessageRenderer {
         if (message.isFromAssistant()) {
             // Collapse XML code blocks if not expanded
             String processedContent = content;
-            if (!showXmlExpanded.get()) {
+            if (!xmlExpanded) {
                 processedContent = collapseXmlCodeBlocks(content);
             }
 
@@ -237,6 +343,9 @@ public class ChatMessageRenderer {
         }
 
         String timestamp = timeFormatter.format(Instant.ofEpochMilli(message.getTimestamp()));
+        if (message.isCached()) {
+            timestamp += " · " + CACHED_LABEL;
+        }
 
         return String.format("""
             <div class="%s">
@@ -251,16 +360,12 @@ public class ChatMessageRenderer {
      * Collapses XML code blocks, replacing them with a summary placeholder.
      */
     private static String collapseXmlCodeBlocks(String content) {
-        Matcher matcher = XML_CODE_BLOCK_PATTERN.matcher(content);
-        StringBuffer result = new StringBuffer();
-
-        while (matcher.find()) {
-            String xmlContent = matcher.group(1);
+        return replaceXmlCodeBlocks(content, xmlContent -> {
             int lineCount = xmlContent.split("\n").length;
             String summary = extractXmlSummary(xmlContent);
 
             // Replace with collapsed placeholder (using special markers that won't be escaped)
-            String placeholder = String.format(
+            return String.format(
                 "\n\n<div class=\"xml-collapsed\">" +
                 "<span class=\"xml-collapsed-icon\">📄</span>" +
                 "<span class=\"xml-collapsed-text\">JMeter Test Plan Generated</span><br>" +
@@ -268,17 +373,47 @@ public class ChatMessageRenderer {
                 "</div>\n\n",
                 summary, lineCount
             );
-            matcher.appendReplacement(result, Matcher.quoteReplacement(placeholder));
-        }
-        matcher.appendTail(result);
+        });
+    }
 
-        return result.toString();
+    /**
+     * Replaces XML code blocks with a one-line markdown summary.
+     * Used to compact old messages whose generated XML is no longer needed.
+     */
+    static String summarizeXmlCodeBlocks(String content) {
+        return replaceXmlCodeBlocks(content, xmlContent -> {
+            int lineCount = xmlContent.split("\n").length;
+            return String.format("_[JMeter test plan: %s (%d lines) — XML omitted]_",
+                extractXmlSummary(xmlContent), lineCount);
+        });
+    }
+
+    /**
+     * Replaces every ```xml code block with the text computed from its content.
+     */
+    private static String replaceXmlCodeBlocks(String content, Function<String, String> replacement) {
+        StringBuilder result = null;
+        int copied = 0;
+        for (MarkdownXmlScanner.CodeBlock block : MarkdownXmlScanner.scan(content).codeBlocks()) {
+            if (!block.isXml()) {
+                continue;
+            }
+            if (result == null) {
+                result = new StringBuilder(content.length());
+            }
+            result.append(content, copied, block.start()).append(replacement.apply(block.content()));
+            copied = block.end();
+        }
+        if (result == null) {
+            return content;
+        }
+        return result.append(content, copied, content.length()).toString();
     }
 
     /**
      * Extracts a brief summary from XML content.
      */
-    private static String extractXmlSummary(String xmlContent) {
+    static String extractXmlSummary(String xmlContent) {
         // Try to extract test plan name
         Pattern testPlanPattern = Pattern.compile("testname=\"([^\"]+)\"");
         Matcher testPlanMatcher = testPlanPattern.matcher(xmlContent);
@@ -311,18 +446,32 @@ public class ChatMessageRenderer {
      * Renders streaming content that is still being received.
      */
     public String renderStreamingMessage(String partialContent) {
+        return "<html><body>\n" + renderStreamingFragment(partialContent) + "</body></html>\n";
+    }
+
+    /**
+     * Renders only the in-flight assistant bubble as an HTML fragment.
+     * The fragment is wrapped in a single element with {@link #STREAMING_ELEMENT_ID}
+     * so it can be inserted into, or replaced within, an existing document.
+     */
+    public String renderStreamingFragment(String partialContent) {
+        long start = System.nanoTime();
+        CopilotEvents.Render event = new CopilotEvents.Render();
+        event.begin();
         Node document = markdownParser.parse(partialContent);
         String renderedContent = htmlRenderer.render(document);
 
-        return String.format("""
-            <html><body>
+        String html = String.format("""
+            <div id="%s">
             <div class="message assistant-message">
                 %s
                 <span class="streaming-indicator">▌</span>
             </div>
             <div class="clearfix"></div>
-            </body></html>
-            """, renderedContent);
+            </div>
+            """, STREAMING_ELEMENT_ID, renderedContent);
+        commitRender(event, start, CopilotEvents.Render.STREAMING, 1, html.length());
+        return html;
     }
 
     private static String escapeHtml(String text) {
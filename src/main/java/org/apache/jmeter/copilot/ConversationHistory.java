@@ -18,61 +18,167 @@
 package org.apache.jmeter.copilot;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Manages the conversation history for the Copilot chat session.
+ * <p>
+ * Messages are kept in a circular buffer with O(1) append and eviction; an
+ * evicted message is overwritten, so it doesn't stay reachable. The history is
+ * written from the SDK event thread and read from the EDT. Readers get an
+ * immutable copy, made by the first read after a change and shared by the
+ * reads that follow, so streaming appends don't copy the history each time.
+ * <p>
+ * Besides the message count, the history is bounded by an estimated token budget.
+ * When the budget is exceeded, older turns are compacted: generated XML is replaced
+ * by a one-line summary, then old exchanges are collapsed into short digests.
+ * The current turn is never compacted; while it alone exceeds the budget,
+ * compaction is skipped until the next turn starts.
+ * <p>
+ * Only this local transcript is compacted. The Copilot session keeps its own,
+ * full context on the server.
  */
 public class ConversationHistory {
 
-    private final List<ChatMessage> messages;
+    /**
+     * Default token budget, roughly 400 KB of text.
+     */
+    public static final long DEFAULT_MAX_ESTIMATED_TOKENS = 100_000;
+
+    private static final int DIGEST_EXCERPT_LENGTH = 120;
+
     private final int maxMessages;
+    private final long maxEstimatedTokens;
+
+    // Guarded by "this"; messages live in buffer[head], ... buffer[(head + count - 1) % maxMessages]
+    private ChatMessage[] buffer;
+    private int head;
+    private int count;
+    private long estimatedTokens;
+    private boolean currentTurnOverBudget;
+    private int compactionCount;
+
+    // Copy of the messages, or null if it has to be made again
+    private volatile List<ChatMessage> snapshot = List.of();
 
     public ConversationHistory() {
         this(100); // Default max messages
     }
 
     public ConversationHistory(int maxMessages) {
-        this.messages = new ArrayList<>();
+        this(maxMessages, DEFAULT_MAX_ESTIMATED_TOKENS);
+    }
+
+    /**
+     * Creates a history bounded by both message count and estimated size.
+     *
+     * @param maxMessages maximum number of messages kept
+     * @param maxEstimatedTokens budget for the estimated token count of all messages
+     */
+    public ConversationHistory(int maxMessages, long maxEstimatedTokens) {
+        if (maxMessages < 1) {
+            throw new IllegalArgumentException("maxMessages must be positive: " + maxMessages);
+        }
+        if (maxEstimatedTokens < 1) {
+            throw new IllegalArgumentException("maxEstimatedTokens must be positive: " + maxEstimatedTokens);
+        }
         this.maxMessages = maxMessages;
+        this.maxEstimatedTokens = maxEstimatedTokens;
+        this.buffer = new ChatMessage[maxMessages];
     }
 
     /**
      * Adds a message to the conversation history.
      * If the history exceeds maxMessages, the oldest messages are removed.
+     * If it exceeds the token budget, older turns are compacted.
      */
-    public void addMessage(ChatMessage message) {
-        messages.add(message);
-        trimIfNeeded();
+    public synchronized void addMessage(ChatMessage message) {
+        if (count == maxMessages) {
+            // Overwrite the oldest message
+            estimatedTokens -= estimateTokens(buffer[head]);
+            buffer[head] = message;
+            head = (head + 1) % maxMessages;
+        } else {
+            buffer[(head + count) % maxMessages] = message;
+            count++;
+        }
+        estimatedTokens += estimateTokens(message);
+        if (message.isFromUser()) {
+            // The previous turn can be compacted now
+            currentTurnOverBudget = false;
+        }
+        if (estimatedTokens > maxEstimatedTokens && !currentTurnOverBudget) {
+            compactToBudget();
+            currentTurnOverBudget = estimatedTokens > maxEstimatedTokens;
+        }
+        snapshot = null;
     }
 
     /**
-     * Returns an unmodifiable view of all messages.
+     * Returns an immutable snapshot of all messages.
+     * The snapshot is not affected by later changes to the history.
      */
     public List<ChatMessage> getMessages() {
-        return Collections.unmodifiableList(messages);
+        List<ChatMessage> messages = snapshot;
+        if (messages != null) {
+            return messages;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = List.copyOf(window());
+            }
+            return snapshot;
+        }
     }
 
     /**
      * Returns the number of messages in the history.
      */
-    public int size() {
-        return messages.size();
+    public synchronized int size() {
+        return count;
     }
 
     /**
      * Clears all messages from the history.
      */
-    public void clear() {
-        messages.clear();
+    public synchronized void clear() {
+        buffer = new ChatMessage[maxMessages];
+        head = 0;
+        count = 0;
+        estimatedTokens = 0;
+        currentTurnOverBudget = false;
+        snapshot = List.of();
+    }
+
+    /**
+     * Returns the estimated token count of all messages in the history.
+     */
+    public synchronized long getEstimatedTokens() {
+        return estimatedTokens;
+    }
+
+    /**
+     * Returns how many times the history has been compacted.
+     */
+    synchronized int getCompactionCount() {
+        return compactionCount;
+    }
+
+    /**
+     * Estimates the number of tokens of a message, at about four characters per token.
+     */
+    static long estimateTokens(ChatMessage message) {
+        String content = message.getContent();
+        int length = content != null ? content.length() : 0;
+        return (length + 3) / 4 + 4;
     }
 
     /**
      * Returns the last message in the history, if any.
      */
     public Optional<ChatMessage> getLastMessage() {
+        List<ChatMessage> messages = getMessages();
         if (messages.isEmpty()) {
             return Optional.empty();
         }
@@ -83,6 +189,7 @@ public class ConversationHistory {
      * Returns the last assistant message in the history, if any.
      */
     public Optional<ChatMessage> getLastAssistantMessage() {
+        List<ChatMessage> messages = getMessages();
         for (int i = messages.size() - 1; i >= 0; i--) {
             ChatMessage msg = messages.get(i);
             if (msg.isFromAssistant()) {
@@ -96,14 +203,100 @@ public class ConversationHistory {
      * Returns messages filtered by role.
      */
     public List<ChatMessage> getMessagesByRole(ChatMessage.Role role) {
-        return messages.stream()
+        return getMessages().stream()
             .filter(m -> m.getRole() == role)
             .toList();
     }
 
-    private void trimIfNeeded() {
-        while (messages.size() > maxMessages) {
-            messages.remove(0);
+    /**
+     * Returns the messages, oldest first.
+     */
+    private List<ChatMessage> window() {
+        List<ChatMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(buffer[(head + i) % maxMessages]);
+        }
+        return messages;
+    }
+
+    /**
+     * Compacts older turns until the estimated size drops to 75% of the budget,
+     * so the next few additions don't trigger another pass.
+     */
+    private void compactToBudget() {
+        compactionCount++;
+        List<ChatMessage> messages = window();
+        long target = maxEstimatedTokens * 3 / 4;
+        long total = estimatedTokens;
+        int preservedFrom = currentTurnStart(messages);
+
+        // Replace generated XML in older answers with its one-line summary
+        for (int i = 0; i < preservedFrom && total > target; i++) {
+            ChatMessage message = messages.get(i);
+            if (message.isFromAssistant()) {
+                String summarized = ChatMessageRenderer.summarizeXmlCodeBlocks(message.getContent());
+                if (!summarized.equals(message.getContent())) {
+                    ChatMessage compacted = new ChatMessage(message.getRole(), summarized, message.getTimestamp(),
+                        message.isCached());
+                    total += estimateTokens(compacted) - estimateTokens(message);
+                    messages.set(i, compacted);
+                }
+            }
+        }
+
+        // Collapse the oldest question/answer pairs into digests
+        for (int i = 0; i + 1 < preservedFrom && total > target; i++) {
+            ChatMessage question = messages.get(i);
+            ChatMessage answer = messages.get(i + 1);
+            if (question.isFromUser() && answer.isFromAssistant()) {
+                ChatMessage digest = digest(question, answer);
+                total += estimateTokens(digest) - estimateTokens(question) - estimateTokens(answer);
+                messages.set(i, digest);
+                messages.remove(i + 1);
+                preservedFrom--;
+            }
+        }
+
+        // As a last resort, drop the oldest messages
+        while (total > maxEstimatedTokens && preservedFrom > 0) {
+            total -= estimateTokens(messages.remove(0));
+            preservedFrom--;
+        }
+
+        buffer = new ChatMessage[maxMessages];
+        for (int i = 0; i < messages.size(); i++) {
+            buffer[i] = messages.get(i);
+        }
+        head = 0;
+        count = messages.size();
+        estimatedTokens = total;
+    }
+
+    /**
+     * Returns the index of the last user message. The current turn, from that
+     * message on, is never compacted.
+     */
+    private static int currentTurnStart(List<ChatMessage> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i).isFromUser()) {
+                return i;
+            }
+        }
+        return Math.max(messages.size() - 1, 0);
+    }
+
+    private static ChatMessage digest(ChatMessage question, ChatMessage answer) {
+        String answerText = ChatMessageRenderer.summarizeXmlCodeBlocks(answer.getContent());
+        String content = String.format("Earlier exchange — asked: \"%s\"; answered: \"%s\"",
+            excerpt(question.getContent()), excerpt(answerText));
+        return new ChatMessage(ChatMessage.Role.SYSTEM, content, question.getTimestamp());
+    }
+
+    private static String excerpt(String text) {
+        String singleLine = text.strip().replaceAll("\\s+", " ");
+        if (singleLine.length() <= DIGEST_EXCERPT_LENGTH) {
+            return singleLine;
         }
+        return singleLine.substring(0, DIGEST_EXCERPT_LENGTH) + "…";
     }
 }
@@ -26,6 +26,13 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.logging.Level;
@@ -33,7 +40,9 @@ import java.util.logging.Logger;
 
 import javax.swing.AbstractAction;
 import javax.swing.BorderFactory;
+import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JEditorPane;
 import javax.swing.JLabel;
@@ -47,7 +56,6 @@ import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
-import javax.swing.SwingWorker;
 import javax.swing.border.EmptyBorder;
 import javax.swing.text.DefaultEditorKit;
 
@@ -64,38 +72,63 @@ public class CopilotChatPanel extends JPanel {
 
     private static final Logger LOG = Logger.getLogger(CopilotChatPanel.class.getName());
     private static final int PREFERRED_WIDTH = 400;
+    private static final int QUEUE_MENU_PROMPT_LENGTH = 50;
+
+    /**
+     * jmeter.properties key enabling the virtualized transcript for very long sessions.
+     */
+    static final String VIRTUALIZED_VIEW_PROPERTY = "copilot.chat.virtualized_view";
+    static final String MERGE_PROPERTY = "copilot.load.merge";
 
     private final CopilotChatService chatService;
     private final JMeterXmlParser xmlParser;
     private final ChatMessageRenderer messageRenderer;
+    private final StreamingDeltaCoalescer deltaCoalescer;
+    private final SpeculativePlanParser speculativeParser;
+    private final CopilotMetrics metrics = CopilotMetrics.getInstance();
 
     // UI Components
     private JEditorPane messagesPane;
+    private StreamingMessageUpdater streamingUpdater;
+    private ChatMessageList messageList; // Only set when the virtualized view is enabled
     private JTextArea inputArea;
     private JButton sendButton;
     private JButton loadXmlButton;
     private JButton clearButton;
     private JButton abortButton;
     private JButton showXmlButton;
+    private JButton queueButton;
     private JLabel statusLabel;
     private JScrollPane messagesScrollPane;
     private JComboBox<String> modelSelector;
+    private JCheckBox fanoutCheckBox;
+    private JCheckBox mergeCheckBox;
 
     // State
     private final AtomicBoolean isProcessing = new AtomicBoolean(false);
     private final AtomicBoolean isAborted = new AtomicBoolean(false);
+    // Cancelled by Abort, Clear and new prompts, then replaced
+    private volatile CancellationToken cancellation = new CancellationToken();
+    // The token of the last prompt sent, set before any of its responses can
+    // arrive; it becomes the current token when its turn starts on the EDT
+    private volatile CancellationToken dispatchedCancellation = cancellation;
     private final StringBuilder streamingContent = new StringBuilder();
     private String lastGeneratedXml = null;
     private String lastJmxFilePath = null;
+    private String lastPlanXml = null; // Extracted XML of the last generated plan
     private Consumer<HashTree> onLoadTestPlan;
     private JProgressBar progressBar;
+    private CompletableFuture<Void> pendingConnect;
+    private boolean fanoutInProgress; // Only accessed on the EDT
+    private boolean updatingModels; // Only accessed on the EDT
     private JLabel progressLabel;
+    private JLabel statsLabel;
 
     /**
      * Creates a new CopilotChatPanel with default services.
      */
     public CopilotChatPanel() {
-        this(new CopilotChatService(), new JMeterXmlParser());
+        this(CopilotPreconnector.claimOrCreateService(), new JMeterXmlParser());
     }
 
     /**
@@ -106,9 +139,16 @@ public class CopilotChatPanel extends JPanel {
         this.chatService = chatService;
         this.xmlParser = xmlParser;
         this.messageRenderer = new ChatMessageRenderer();
+        this.deltaCoalescer = new StreamingDeltaCoalescer(this::appendStreamingContent);
+        this.speculativeParser = new SpeculativePlanParser(xmlParser);
 
         initializeUI();
         setupEventHandlers();
+
+        // Adopt a connection started in the background at JMeter startup
+        if (chatService.isConnectionStarted()) {
+            connect();
+        }
     }
 
     private void initializeUI() {
@@ -121,15 +161,27 @@ public class CopilotChatPanel extends JPanel {
         add(headerPanel, BorderLayout.NORTH);
 
         // Messages area
-        messagesPane = messageRenderer.createMessagePane();
-        messagesScrollPane = new JScrollPane(messagesPane);
+        if (JMeterUtils.getPropDefault(VIRTUALIZED_VIEW_PROPERTY, false)) {
+            messageList = new ChatMessageList(messageRenderer);
+            messagesScrollPane = new JScrollPane(messageList);
+        } else {
+            messagesPane = messageRenderer.createMessagePane();
+            streamingUpdater = new StreamingMessageUpdater(messagesPane, messageRenderer);
+            messagesScrollPane = new JScrollPane(messagesPane);
+        }
         messagesScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         messagesScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         add(messagesScrollPane, BorderLayout.CENTER);
 
-        // Input panel
-        JPanel inputPanel = createInputPanel();
-        add(inputPanel, BorderLayout.SOUTH);
+        // Input panel with the stats footer below it
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(createInputPanel(), BorderLayout.CENTER);
+        statsLabel = new JLabel(" ");
+        statsLabel.setFont(statsLabel.getFont().deriveFont(Font.PLAIN, 10f));
+        statsLabel.setForeground(Color.GRAY);
+        statsLabel.setBorder(new EmptyBorder(4, 0, 0, 0));
+        southPanel.add(statsLabel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
 
         // Set initial state
         updateConnectionStatus(false);
@@ -149,16 +201,22 @@ public class CopilotChatPanel extends JPanel {
         JLabel modelLabel = new JLabel("Model:");
         centerPanel.add(modelLabel);
 
-        modelSelector = new JComboBox<>(chatService.getAvailableModels().toArray(new String[0]));
-        modelSelector.setSelectedItem(chatService.getModel());
+        // Filled from the cached list and refreshed once connected
+        modelSelector = new JComboBox<>();
+        updateModelSelector(List.of());
         modelSelector.setToolTipText("Select AI model");
         modelSelector.addActionListener(e -> {
             String selectedModel = (String) modelSelector.getSelectedItem();
-            if (selectedModel != null) {
+            if (selectedModel != null && !updatingModels) {
                 chatService.setModel(selectedModel);
             }
         });
         centerPanel.add(modelSelector);
+        showCachedModels();
+
+        fanoutCheckBox = new JCheckBox("Fan-out");
+        fanoutCheckBox.setToolTipText("Send the prompt to several models at once and keep the first valid test plan");
+        centerPanel.add(fanoutCheckBox);
         panel.add(centerPanel, BorderLayout.CENTER);
 
         // Status and buttons
@@ -178,6 +236,34 @@ public class CopilotChatPanel extends JPanel {
         return panel;
     }
 
+    @SuppressWarnings("FutureReturnValueIgnored")
+    private void showCachedModels() {
+        chatService.getCachedModels()
+            .thenAccept(models -> SwingUtilities.invokeLater(() -> updateModelSelector(models)));
+    }
+
+    @SuppressWarnings("FutureReturnValueIgnored")
+    private void refreshModelSelector() {
+        chatService.getAvailableModels()
+            .thenAccept(models -> SwingUtilities.invokeLater(() -> updateModelSelector(models)));
+    }
+
+    private void updateModelSelector(List<String> models) {
+        String selected = chatService.getModel();
+        DefaultComboBoxModel<String> comboModel = new DefaultComboBoxModel<>(models.toArray(new String[0]));
+        if (selected != null && comboModel.getIndexOf(selected) < 0) {
+            comboModel.insertElementAt(selected, 0);
+        }
+        comboModel.setSelectedItem(selected);
+        // Replacing the model fires action events, which must not change the service's model
+        updatingModels = true;
+        try {
+            modelSelector.setModel(comboModel);
+        } finally {
+            updatingModels = false;
+        }
+    }
+
     private JPanel createInputPanel() {
         JPanel panel = new JPanel(new BorderLayout(5, 5));
         panel.setBorder(new EmptyBorder(10, 0, 0, 0));
@@ -247,6 +333,12 @@ public class CopilotChatPanel extends JPanel {
         // Buttons panel
         JPanel buttonsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
 
+        queueButton = new JButton();
+        queueButton.setVisible(false);
+        queueButton.setToolTipText("Prompts waiting to be sent; click to cancel one");
+        queueButton.addActionListener(e -> showQueueMenu());
+        buttonsPanel.add(queueButton);
+
         abortButton = new JButton("Stop");
         abortButton.setEnabled(false);
         abortButton.addActionListener(e -> abortGeneration());
@@ -264,6 +356,10 @@ public class CopilotChatPanel extends JPanel {
         loadXmlButton.addActionListener(e -> loadGeneratedXml());
         buttonsPanel.add(loadXmlButton);
 
+        mergeCheckBox = new JCheckBox("Merge", JMeterUtils.getPropDefault(MERGE_PROPERTY, false));
+        mergeCheckBox.setToolTipText("Only apply the changes to the open test plan instead of replacing it");
+        buttonsPanel.add(mergeCheckBox);
+
         sendButton = new JButton("Send");
         sendButton.addActionListener(e -> sendMessage());
         buttonsPanel.add(sendButton);
@@ -378,73 +474,148 @@ public class CopilotChatPanel extends JPanel {
     }
 
     private void setupEventHandlers() {
-        // Set up streaming handler
-        chatService.setStreamingHandler(chunk -> {
+        // Set up streaming handler; deltas are batched and applied at most once per frame
+        chatService.setStreamingHandler(deltaCoalescer::offer);
+
+        // Submitted and queued prompts start their turn when they are actually sent
+        chatService.setPromptDispatchedHandler(prompt -> {
+            // On the dispatching thread, before the prompt is sent: clearing in
+            // the queued startTurn could drop the first deltas of the response
+            deltaCoalescer.clear();
+            // A cached response is handled before the queued startTurn runs
+            CancellationToken token = new CancellationToken();
+            dispatchedCancellation = token;
+            SwingUtilities.invokeLater(() -> startTurn(token));
+        });
+        chatService.setQueueChangedHandler(() -> SwingUtilities.invokeLater(this::updateQueueIndicator));
+        chatService.setPlanSupplier(CopilotChatPanel::readOpenTestPlan);
+
+        // Allow loading the plan as soon as its closing tag has streamed in
+        chatService.setPlanCompleteHandler(xml -> {
+            CancellationToken token = dispatchedCancellation;
             SwingUtilities.invokeLater(() -> {
-                // Ignore chunks if generation was aborted
-                if (isAborted.get()) {
+                if (token.isCancelled() || isAborted.get() || !isProcessing.get()) {
                     return;
                 }
-                streamingContent.append(chunk);
-                updateStreamingDisplay();
+                lastGeneratedXml = xml;
+                lastJmxFilePath = null;
+                lastPlanXml = xml;
+                speculativeParser.submit(xml, token);
+                loadXmlButton.setEnabled(true);
             });
         });
 
         // Set up complete message handler
         chatService.setMessageHandler(message -> {
+            CancellationToken token = dispatchedCancellation;
+            // The message replaces its deltas; cleared here, before the next
+            // queued prompt can be dispatched and start streaming
+            deltaCoalescer.clear();
             SwingUtilities.invokeLater(() -> {
-                // Ignore message if generation was aborted
-                if (isAborted.get()) {
+                // Ignore message if generation was aborted or the conversation cleared
+                if (token.isCancelled() || isAborted.get()) {
                     return;
                 }
                 streamingContent.setLength(0);
                 isProcessing.set(false);
                 updateUIState();
                 refreshMessages();
+                updateStatsFooter();
 
                 String content = message.getContent();
                 // Check if the response contains XML inline
-                if (xmlParser.containsJMeterXml(content)) {
+                Optional<String> planXml = xmlParser.extractXmlFromText(content);
+                if (planXml.isPresent()) {
                     lastGeneratedXml = content;
                     lastJmxFilePath = null;
+                    // The plan reported while streaming can differ from the final
+                    // extraction, which wins; parse ahead of time so "Load to Test
+                    // Plan" only has to insert the tree
+                    if (!planXml.get().equals(lastPlanXml)) {
+                        lastPlanXml = planXml.get();
+                        speculativeParser.submit(lastPlanXml, token);
+                    }
                     loadXmlButton.setEnabled(true);
                     showXmlButton.setEnabled(true);
                 } else {
                     // Check if the response references a .jmx file
                     xmlParser.extractJmxFilePath(content).ifPresent(path -> {
                         lastJmxFilePath = path;
+                        lastGeneratedXml = null;
                         loadXmlButton.setEnabled(true);
-                        // Try to read the file content so "Show XML" button works
-                        try {
-                            java.io.File file = new java.io.File(path);
-                            if (file.exists() && file.canRead()) {
-                                lastGeneratedXml = java.nio.file.Files.readString(
-                                    file.toPath(), java.nio.charset.StandardCharsets.UTF_8);
-                                showXmlButton.setEnabled(true);
-                            } else {
-                                lastGeneratedXml = null;
-                                showXmlButton.setEnabled(false);
-                            }
-                        } catch (Exception e) {
-                            LOG.log(Level.WARNING, "Could not read JMX file for preview: " + path, e);
-                            lastGeneratedXml = null;
-                            showXmlButton.setEnabled(false);
-                        }
+                        showXmlButton.setEnabled(false);
+                        readJmxPreview(path, token);
                     });
                 }
             });
         });
     }
 
+    /**
+     * Reads a referenced JMX file in the background, so "Show XML" can show it.
+     */
+    private void readJmxPreview(String path, CancellationToken token) {
+        CompletableFuture.supplyAsync(() -> {
+            token.throwIfCancelled();
+            java.io.File file = new java.io.File(path);
+            if (!file.exists() || !file.canRead()) {
+                return null;
+            }
+            try {
+                return java.nio.file.Files.readString(file.toPath(), java.nio.charset.StandardCharsets.UTF_8);
+            } catch (java.io.IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }, CopilotExecutors.background()).whenComplete((xml, ex) -> SwingUtilities.invokeLater(() -> {
+            if (token.isCancelled() || !path.equals(lastJmxFilePath)) {
+                return;
+            }
+            if (ex != null) {
+                LOG.log(Level.WARNING, "Could not read JMX file for preview: " + path, ex);
+            }
+            lastGeneratedXml = xml;
+            showXmlButton.setEnabled(xml != null);
+        }));
+    }
+
+    /**
+     * Cancels the parses, file reads and UI updates still pending, and
+     * starts a new token for the work that follows.
+     */
+    private void cancelPendingWork() {
+        cancelPendingWork(new CancellationToken());
+    }
+
+    private void cancelPendingWork(CancellationToken next) {
+        CancellationToken previous = cancellation;
+        cancellation = next;
+        previous.cancel();
+    }
+
+    private void appendStreamingContent(String chunk) {
+        // Ignore chunks if generation was aborted
+        if (isAborted.get()) {
+            return;
+        }
+        streamingContent.append(chunk);
+        updateStreamingDisplay();
+    }
+
     /**
      * Connects to the Copilot service.
      */
     public void connect() {
+        if (pendingConnect != null && !pendingConnect.isDone()) {
+            return;
+        }
         updateConnectionStatus(false, "Connecting...");
 
-        chatService.connect()
+        pendingConnect = chatService.connect();
+        pendingConnect
             .thenRun(() -> SwingUtilities.invokeLater(() -> {
                 updateConnectionStatus(true);
+                // Models can only be fetched once the client has started
+                refreshModelSelector();
                 addSystemMessage("Connected to GitHub Copilot. Describe the test plan you want to create.");
             }))
             .exceptionally(ex -> {
@@ -470,41 +641,133 @@ public class CopilotChatPanel extends JPanel {
             return;
         }
 
-        if (isProcessing.get()) {
-            return;
-        }
-
         if (!chatService.isConnected()) {
             addSystemMessage("Not connected to Copilot. Connecting...");
             connect();
             return;
         }
 
+        if (fanoutInProgress) {
+            addSystemMessage("Prompts can't be queued behind a fan-out. Wait for it to finish or stop it.");
+            return;
+        }
+
+        if (fanoutCheckBox.isSelected()) {
+            if (isProcessing.get()) {
+                addSystemMessage("Fan-out prompts can't be queued. Wait for the current response or untick Fan-out.");
+                return;
+            }
+            CancellationToken token = new CancellationToken();
+            dispatchedCancellation = token;
+            deltaCoalescer.clear();
+            startTurn(token);
+            clearInput();
+            sendFanoutMessage(text);
+            return;
+        }
+
+        clearInput();
+
+        // Sent right away when idle, otherwise queued until the current response is done;
+        // the prompt dispatched handler starts the turn in the UI
+        chatService.submitMessage(text)
+            .whenComplete((messageId, ex) -> {
+                if (ex == null || ex instanceof CancellationException) {
+                    return;
+                }
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                SwingUtilities.invokeLater(() -> {
+                    if (cause instanceof RejectedExecutionException) {
+                        addSystemMessage(cause.getMessage() + ". Your prompt was put back in the input box.");
+                        inputArea.setText(text);
+                        inputArea.setForeground(Color.BLACK);
+                        return;
+                    }
+                    isProcessing.set(false);
+                    updateUIState();
+                    addSystemMessage("Error: " + cause.getMessage());
+                });
+            });
+    }
+
+    private void clearInput() {
+        inputArea.setText("");
+        inputArea.setForeground(Color.BLACK);
+    }
+
+    /**
+     * Resets the per-response state when a prompt is sent to Copilot.
+     *
+     * @param token the token of the prompt's responses
+     */
+    private void startTurn(CancellationToken token) {
         isProcessing.set(true);
         isAborted.set(false); // Reset abort flag for new message
+        cancelPendingWork(token);
         streamingContent.setLength(0);
         lastGeneratedXml = null;
         lastJmxFilePath = null;
+        lastPlanXml = null;
+        speculativeParser.cancel();
         loadXmlButton.setEnabled(false);
         showXmlButton.setEnabled(false);
         showXmlButton.setText("Show XML");
         messageRenderer.setShowXmlExpanded(false);
         updateUIState();
 
-        // Clear input
-        inputArea.setText("");
-        inputArea.setForeground(Color.BLACK);
+        // Refresh to show user message immediately
+        refreshMessages();
+    }
 
-        // Send message
-        chatService.sendMessage(text)
-            .exceptionally(ex -> {
-                SwingUtilities.invokeLater(() -> {
+    private void updateQueueIndicator() {
+        int depth = chatService.getQueuedPrompts().size();
+        queueButton.setText("Queued: " + depth);
+        queueButton.setVisible(depth > 0);
+    }
+
+    private void showQueueMenu() {
+        JPopupMenu menu = new JPopupMenu();
+        for (PromptQueue.Entry entry : chatService.getQueuedPrompts()) {
+            String prompt = entry.prompt().replaceAll("\\s+", " ");
+            JMenuItem item = new JMenuItem("Cancel: "
+                + (prompt.length() > QUEUE_MENU_PROMPT_LENGTH
+                    ? prompt.substring(0, QUEUE_MENU_PROMPT_LENGTH) + "..." : prompt));
+            item.addActionListener(e -> chatService.cancelQueuedPrompt(entry.id()));
+            menu.add(item);
+        }
+        if (menu.getComponentCount() > 0) {
+            menu.show(queueButton, 0, queueButton.getHeight());
+        }
+    }
+
+    @SuppressWarnings("FutureReturnValueIgnored")
+    private void sendFanoutMessage(String text) {
+        List<String> available = new ArrayList<>();
+        for (int i = 0; i < modelSelector.getItemCount(); i++) {
+            available.add(modelSelector.getItemAt(i));
+        }
+        List<String> models = ModelFanout.selectModels(
+            JMeterUtils.getProperty(ModelFanout.MODELS_PROPERTY), chatService.getModel(), available);
+        progressLabel.setText("Generating with " + String.join(", ", models) + "...");
+
+        fanoutInProgress = true;
+        CancellationToken token = cancellation;
+        chatService.sendMessageFanout(text, models, xmlParser)
+            .whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+                fanoutInProgress = false;
+                if (token.isCancelled() || isAborted.get()) {
+                    return;
+                }
+                if (ex != null) {
                     isProcessing.set(false);
                     updateUIState();
-                    addSystemMessage("Error: " + ex.getMessage());
-                });
-                return null;
-            });
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    addSystemMessage("Error: " + cause.getMessage());
+                } else {
+                    addSystemMessage(String.format("%s returned the first valid test plan in %.1f s.",
+                        result.model(), result.elapsed().toMillis() / 1000.0));
+                }
+            }));
 
         // Refresh to show user message immediately
         refreshMessages();
@@ -515,6 +778,8 @@ public class CopilotChatPanel extends JPanel {
         // Set abort flag immediately to stop processing incoming chunks
         isAborted.set(true);
         isProcessing.set(false);
+        cancelPendingWork();
+        deltaCoalescer.clear();
         streamingContent.setLength(0);
         updateUIState();
         
@@ -529,10 +794,15 @@ public class CopilotChatPanel extends JPanel {
         // Clear UI state immediately for responsiveness
         lastGeneratedXml = null;
         lastJmxFilePath = null;
+        lastPlanXml = null;
+        cancelPendingWork();
+        speculativeParser.cancel();
         loadXmlButton.setEnabled(false);
         showXmlButton.setEnabled(false);
         showXmlButton.setText("Show XML");
         messageRenderer.setShowXmlExpanded(false);
+        messageRenderer.clearCache();
+        deltaCoalescer.clear();
         streamingContent.setLength(0);
 
         // Clear the conversation in the service
@@ -603,38 +873,54 @@ public class CopilotChatPanel extends JPanel {
             JMeterUtils.setProperty("resultcollector.action_if_file_exists", "APPEND");
         }
 
+        // Use the speculative parse when there is one; it is usually done already
+        Optional<CompletableFuture<JMeterXmlParser.ParseResult>> parsed = lastJmxFilePath == null && lastPlanXml != null
+            ? speculativeParser.take(lastPlanXml)
+            : Optional.empty();
+        if (parsed.isPresent() && parsed.get().isDone() && !parsed.get().isCompletedExceptionally()) {
+            processParseResult(parsed.get().join());
+            return;
+        }
+
         // Show progress while loading
         progressLabel.setText("Loading test plan into JMeter...");
         progressBar.setVisible(true);
 
-        // Parse and load in background to keep UI responsive
-        SwingWorker<JMeterXmlParser.ParseResult, Void> worker = new SwingWorker<>() {
-            @Override
-            protected JMeterXmlParser.ParseResult doInBackground() {
-                if (lastJmxFilePath != null) {
-                    return xmlParser.parseXmlFile(lastJmxFilePath);
+        CancellationToken token = cancellation;
+        if (parsed.isPresent()) {
+            parsed.get().whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+                hideProgress();
+                if (token.isCancelled()) {
+                    return;
                 }
-                return xmlParser.parseXml(lastGeneratedXml);
-            }
-
-            @Override
-            protected void done() {
-                handleLoadResult();
-            }
+                if (ex != null) {
+                    LOG.log(Level.WARNING, "Error loading test plan", ex);
+                    showError("Error loading test plan: " + ex.getMessage());
+                } else {
+                    processParseResult(result);
+                }
+            }));
+            return;
+        }
 
-            private void handleLoadResult() {
-                try {
-                    JMeterXmlParser.ParseResult result = get();
-                    hideProgress();
+        // Parse and load in background to keep UI responsive
+        String jmxFilePath = lastJmxFilePath;
+        String generatedXml = lastGeneratedXml;
+        CompletableFuture.supplyAsync(() -> jmxFilePath != null
+                ? xmlParser.parseXmlFile(jmxFilePath, token)
+                : xmlParser.parseXml(generatedXml, token), CopilotExecutors.background())
+            .whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+                hideProgress();
+                if (token.isCancelled()) {
+                    return;
+                }
+                if (ex != null) {
+                    LOG.log(Level.WARNING, "Error loading test plan", ex);
+                    showError("Error loading test plan: " + ex.getMessage());
+                } else {
                     processParseResult(result);
-                } catch (Exception e) {
-                    hideProgress();
-                    LOG.log(Level.WARNING, "Error loading test plan", e);
-                    showError("Error loading test plan: " + e.getMessage());
                 }
-            }
-        };
-        worker.execute();
+            }));
     }
 
     private void hideProgress() {
@@ -648,12 +934,66 @@ public class CopilotChatPanel extends JPanel {
         } else {
             showParseError(result.errorMessage());
         }
+        updateStatsFooter();
+    }
+
+    /**
+     * Shows the median latencies in the footer and all percentiles in its tooltip.
+     */
+    private void updateStatsFooter() {
+        MetricSnapshot firstToken = metrics.getTimeToFirstTokenMillis();
+        MetricSnapshot tokensPerSecond = metrics.getTokensPerSecond();
+        MetricSnapshot parse = metrics.getParseTimeMillis();
+        MetricSnapshot edt = metrics.getEdtRefreshTimeMillis();
+        if (firstToken.getCount() == 0 && parse.getCount() == 0) {
+            return;
+        }
+        statsLabel.setText(String.format("First token %s · %.0f tok/s · Parse %s · EDT %s (median)",
+            formatMillis(firstToken.getP50()), tokensPerSecond.getP50(),
+            formatMillis(parse.getP50()), formatMillis(edt.getP50())));
+
+        StringBuilder tooltip = new StringBuilder("<html><table>"
+            + "<tr><th></th><th>p50</th><th>p95</th><th>p99</th><th>count</th></tr>");
+        appendStatsRow(tooltip, "Time to first token", firstToken, true);
+        appendStatsRow(tooltip, "Response time", metrics.getResponseTimeMillis(), true);
+        appendStatsRow(tooltip, "Tokens/s", tokensPerSecond, false);
+        appendStatsRow(tooltip, "Parse", parse, true);
+        appendStatsRow(tooltip, "Render", metrics.getRenderTimeMillis(), true);
+        appendStatsRow(tooltip, "EDT per refresh", edt, true);
+        statsLabel.setToolTipText(tooltip.append("</table></html>").toString());
+    }
+
+    private static void appendStatsRow(StringBuilder html, String name, MetricSnapshot snapshot, boolean millis) {
+        html.append("<tr><td>").append(name).append("</td>");
+        for (double value : new double[]{snapshot.getP50(), snapshot.getP95(), snapshot.getP99()}) {
+            html.append("<td>").append(millis ? formatMillis(value) : String.format("%.0f", value)).append("</td>");
+        }
+        html.append("<td>").append(snapshot.getCount()).append("</td></tr>");
+    }
+
+    private static String formatMillis(double millis) {
+        return millis < 1000 ? String.format("%.0f ms", millis) : String.format("%.1f s", millis / 1000);
     }
 
     private void loadTestPlanTree(HashTree tree) {
+        GuiPackage mergeTarget = mergeCheckBox.isSelected() ? GuiPackage.getInstance() : null;
+        if (mergeTarget != null) {
+            try {
+                TestPlanMerger.Result result = TestPlanMerger.merge(mergeTarget, tree);
+                addSystemMessage(result.applied().isEmpty()
+                    ? "✓ The test plan already matches the generated one."
+                    : "✓ Merged into the test plan: " + result.summary() + ".");
+                markLoadedPlanSeen();
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "Failed to merge test plan", e);
+                showError("Failed to merge test plan: " + e.getMessage());
+            }
+            return;
+        }
         if (onLoadTestPlan != null) {
             onLoadTestPlan.accept(tree);
             addSystemMessage("✓ Test plan loaded successfully!");
+            markLoadedPlanSeen();
             return;
         }
         // Try to load via GuiPackage if available
@@ -663,6 +1003,7 @@ public class CopilotChatPanel extends JPanel {
                 guiPackage.getTreeModel().clearTestPlan();
                 guiPackage.addSubTree(tree);
                 addSystemMessage("✓ Test plan loaded successfully! You can now view and edit it in the tree.");
+                markLoadedPlanSeen();
             } else {
                 showError("Could not access JMeter GUI. Please save the XML and load manually.");
             }
@@ -672,6 +1013,35 @@ public class CopilotChatPanel extends JPanel {
         }
     }
 
+    /**
+     * The model wrote the plan that was just loaded, so the next prompt only
+     * needs to describe the user's edits to it.
+     */
+    private void markLoadedPlanSeen() {
+        HashTree plan = readOpenTestPlan();
+        if (plan != null) {
+            chatService.markPlanSeen(plan);
+        }
+    }
+
+    /**
+     * Returns the test plan open in JMeter, or null without a GUI, after
+     * saving pending edits in the selected element. Must be called on the
+     * EDT, where prompts are submitted.
+     */
+    private static HashTree readOpenTestPlan() {
+        return readOpenTestPlan(GuiPackage.getInstance());
+    }
+
+    static HashTree readOpenTestPlan(GuiPackage guiPackage) {
+        if (guiPackage == null) {
+            return null;
+        }
+        guiPackage.updateCurrentNode();
+        // Not getTestPlan(), whose keys are tree nodes rather than test elements
+        return TestPlanMerger.readTestPlan(guiPackage.getTreeModel());
+    }
+
     private void showParseError(String errorMessage) {
         JOptionPane.showMessageDialog(this,
             "Failed to parse XML: " + errorMessage,
@@ -693,15 +1063,46 @@ public class CopilotChatPanel extends JPanel {
     }
 
     private void refreshMessages() {
-        String html = messageRenderer.renderMessages(
-            chatService.getConversationHistory().getMessages()
-        );
-        messagesPane.setText(html);
-        scrollToBottom();
+        long start = System.nanoTime();
+        try {
+            if (messageList != null) {
+                messageList.setMessages(chatService.getConversationHistory().getMessages());
+                scrollToBottom();
+                return;
+            }
+            String html = messageRenderer.renderMessages(
+                chatService.getConversationHistory().getMessages()
+            );
+            messagesPane.setText(html);
+            streamingUpdater.reset();
+            scrollToBottom();
+        } finally {
+            metrics.recordSince(CopilotMetrics.Metric.EDT_REFRESH_TIME, start);
+        }
     }
 
     private void updateStreamingDisplay() {
-        if (streamingContent.length() > 0) {
+        if (streamingContent.length() == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            doUpdateStreamingDisplay();
+        } finally {
+            metrics.recordSince(CopilotMetrics.Metric.EDT_REFRESH_TIME, start);
+        }
+    }
+
+    private void doUpdateStreamingDisplay() {
+        if (messageList != null) {
+            messageList.setStreamingContent(streamingContent.toString());
+            scrollToBottom();
+            return;
+        }
+        // Only the in-flight bubble is re-rendered; fall back to a full render if that fails
+        if (streamingUpdater.update(streamingContent.toString())) {
+            scrollToBottom();
+        } else {
             String existingHtml = messageRenderer.renderMessages(
                 chatService.getConversationHistory().getMessages()
             );
@@ -712,6 +1113,7 @@ public class CopilotChatPanel extends JPanel {
             String combined = existingHtml.replace("</body></html>", "") +
                               streamingHtml.replace("<html><body>", "");
             messagesPane.setText(combined);
+            streamingUpdater.reset();
             scrollToBottom();
         }
     }
@@ -725,9 +1127,9 @@ public class CopilotChatPanel extends JPanel {
 
     private void updateUIState() {
         boolean processing = isProcessing.get();
-        sendButton.setEnabled(!processing);
+        // Input stays enabled while processing so further prompts can be queued
+        sendButton.setText(processing ? "Queue" : "Send");
         abortButton.setEnabled(processing);
-        inputArea.setEnabled(!processing);
         clearButton.setEnabled(!processing);
 
         // Update progress bar and label visibility
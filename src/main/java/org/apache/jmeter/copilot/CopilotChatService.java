@@ -19,18 +19,26 @@ package org.apache.jmeter.copilot;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.collections.HashTree;
+
 import com.github.copilot.sdk.CopilotClient;
 import com.github.copilot.sdk.CopilotSession;
 import com.github.copilot.sdk.generated.AssistantMessageDeltaEvent;
 import com.github.copilot.sdk.generated.AssistantMessageEvent;
 import com.github.copilot.sdk.generated.SessionErrorEvent;
 import com.github.copilot.sdk.generated.SessionEvent;
+import com.github.copilot.sdk.generated.SessionIdleEvent;
 import com.github.copilot.sdk.json.MessageOptions;
 import com.github.copilot.sdk.json.SessionConfig;
 
@@ -42,6 +50,22 @@ public class CopilotChatService implements AutoCloseable {
 
     private static final Logger LOG = Logger.getLogger(CopilotChatService.class.getName());
 
+    /**
+     * jmeter.properties key for the estimated token budget of the conversation history.
+     */
+    static final String HISTORY_MAX_TOKENS_PROPERTY = "copilot.history.max_tokens";
+
+    /**
+     * jmeter.properties key for the number of prompts that can wait while a response is generated.
+     */
+    static final String QUEUE_MAX_SIZE_PROPERTY = "copilot.queue.max_size";
+    static final int DEFAULT_QUEUE_MAX_SIZE = 10;
+
+    /**
+     * Message ID reported for prompts answered from the response cache.
+     */
+    static final String CACHED_MESSAGE_ID = "cached";
+
     private static final String JMETER_SYSTEM_PROMPT = """
         You are an expert Apache JMeter test plan generator. Your role is to help users create
         JMeter test plans by generating valid JMeter XML (.jmx) format.
@@ -76,46 +100,118 @@ public class CopilotChatService implements AutoCloseable {
     private CopilotSession session;
     private final ConversationHistory conversationHistory;
     private final AtomicBoolean connected = new AtomicBoolean(false);
+    private CompletableFuture<Void> connection; // Guarded by "this"
+    private CompletableFuture<CopilotSession> spareSession; // Guarded by "this"
     private Consumer<String> streamingHandler;
     private Consumer<ChatMessage> messageHandler;
+    private Consumer<String> planCompleteHandler;
+    private Consumer<String> promptDispatchedHandler;
+    private final PromptQueue promptQueue;
+    private final ResponseCache responseCache; // Null when disabled
+    private final ModelCatalog modelCatalog;
+    private volatile String pendingCacheKey; // Key to store the current response under
+    private volatile String cachedExchange; // Cached or fanned out turns the session hasn't seen yet
+    private final StreamingXmlExtractor xmlExtractor = new StreamingXmlExtractor();
     private Closeable eventSubscription;
+    private volatile ModelFanout activeFanout;
+    private final CopilotMetrics metrics = CopilotMetrics.getInstance();
+    private volatile long turnStartNanos; // 0 when no response is expected
+    private volatile long firstTokenNanos; // 0 until the first chunk arrives
+    private volatile CopilotEvents.FirstDelta firstDeltaEvent; // null once the first chunk arrived
+    private volatile SessionEventRecorder eventRecorder; // Null unless recording
+    private volatile PlanContextTracker planContext; // Null when disabled
+    private volatile Supplier<HashTree> planSupplier; // Returns the plan open in JMeter
     private String model = "claude-sonnet-4"; // Default model
 
     /**
      * Creates a new CopilotChatService with the default CopilotClient.
      */
     public CopilotChatService() {
-        this(new CopilotClient());
+        this(new CopilotClient(), ResponseCache.createIfEnabled(), ModelCatalog.defaultFile());
+        this.eventRecorder = SessionEventRecorder.createIfConfigured();
     }
 
     /**
      * Creates a new CopilotChatService with a custom CopilotClient.
-     * Useful for testing with mocked clients.
+     * Useful for testing with mocked clients; the model list is not persisted.
      */
     public CopilotChatService(CopilotClient client) {
+        this(client, ResponseCache.createIfEnabled(), null);
+    }
+
+    /**
+     * Creates a new CopilotChatService with a custom CopilotClient and
+     * response cache, which may be null to disable caching.
+     */
+    CopilotChatService(CopilotClient client, ResponseCache responseCache) {
+        this(client, responseCache, null);
+    }
+
+    /**
+     * Creates a new CopilotChatService.
+     *
+     * @param client        the Copilot client
+     * @param responseCache the response cache, or null to disable caching
+     * @param modelListFile file the model list is persisted in, or null
+     */
+    CopilotChatService(CopilotClient client, ResponseCache responseCache, Path modelListFile) {
         this.client = client;
-        this.conversationHistory = new ConversationHistory();
+        this.responseCache = responseCache;
+        this.modelCatalog = new ModelCatalog(this::fetchModels, modelListFile,
+            Duration.ofSeconds(JMeterUtils.getPropDefault(ModelCatalog.TTL_PROPERTY, ModelCatalog.DEFAULT_TTL_SECONDS)));
+        this.conversationHistory = new ConversationHistory(100,
+            JMeterUtils.getPropDefault(HISTORY_MAX_TOKENS_PROPERTY, ConversationHistory.DEFAULT_MAX_ESTIMATED_TOKENS));
+        this.promptQueue = new PromptQueue(
+            JMeterUtils.getPropDefault(QUEUE_MAX_SIZE_PROPERTY, DEFAULT_QUEUE_MAX_SIZE), this::dispatchPrompt);
+        this.planContext = PlanContextTracker.createIfEnabled();
     }
 
     /**
      * Connects to the Copilot service and creates a session.
+     * Calling it again while connecting or connected returns the same future,
+     * so a connection started in the background can be picked up later.
      *
      * @return CompletableFuture that completes when connected
      */
-    public CompletableFuture<Void> connect() {
-        return client.start()
+    public synchronized CompletableFuture<Void> connect() {
+        if (connection != null && !connection.isCompletedExceptionally()) {
+            return connection;
+        }
+        CopilotEvents.Connect event = new CopilotEvents.Connect();
+        event.model = model;
+        event.begin();
+        // Session bookkeeping runs on the background executor, not on SDK threads
+        connection = client.start()
             .thenCompose(v -> createSession())
-            .thenAccept(s -> {
+            .thenAcceptAsync(s -> {
                 this.session = s;
                 connected.set(true);
                 subscribeToEvents();
-            });
+                replenishSpareSession();
+            }, CopilotExecutors.background());
+        connection.whenComplete((v, ex) -> {
+            event.succeeded = ex == null;
+            event.commit();
+        });
+        return connection;
+    }
+
+    /**
+     * Returns whether connect() has been called and has not failed,
+     * i.e. the service is connected or connecting.
+     */
+    public synchronized boolean isConnectionStarted() {
+        return connection != null && !connection.isCompletedExceptionally();
     }
 
     private CompletableFuture<CopilotSession> createSession() {
+        return createSession(model);
+    }
+
+    private CompletableFuture<CopilotSession> createSession(String sessionModel) {
         SessionConfig config = new SessionConfig()
             .setStreaming(true)
-            .setModel(model)
+            .setModel(sessionModel)
             .setOnPermissionRequest(com.github.copilot.sdk.json.PermissionHandler.APPROVE_ALL)
             .setSystemMessage(new com.github.copilot.sdk.json.SystemMessageConfig()
                 .setMode(com.github.copilot.sdk.SystemMessageMode.APPEND)
@@ -124,14 +220,71 @@ public class CopilotChatService implements AutoCloseable {
         return client.createSession(config);
     }
 
+    /**
+     * Starts creating a spare session in the background, so clearing the
+     * conversation can switch to it without waiting for a handshake.
+     */
+    private synchronized void replenishSpareSession() {
+        if (!connected.get() || spareSession != null) {
+            return;
+        }
+        CompletableFuture<CopilotSession> spare = createSession();
+        spareSession = spare;
+        spare.exceptionally(ex -> {
+            LOG.log(Level.FINE, "Failed to create spare session", ex);
+            synchronized (this) {
+                if (spareSession == spare) {
+                    spareSession = null;
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Hands out the spare session, or a new one if there is no spare.
+     */
+    private synchronized CompletableFuture<CopilotSession> takeSpareSession() {
+        CompletableFuture<CopilotSession> spare = spareSession;
+        spareSession = null;
+        if (spare == null || spare.isCompletedExceptionally()) {
+            return createSession();
+        }
+        return spare;
+    }
+
+    /**
+     * Closes the spare session once it has been created.
+     */
+    private synchronized void discardSpareSession() {
+        CompletableFuture<CopilotSession> spare = spareSession;
+        spareSession = null;
+        if (spare != null) {
+            spare.thenAcceptAsync(s -> {
+                try {
+                    s.close();
+                } catch (Exception e) {
+                    LOG.log(Level.FINE, "Error closing spare session", e);
+                }
+            }, CopilotExecutors.background());
+        }
+    }
+
     /**
      * Sets the AI model to use for the session.
-     * Must be called before connect() to take effect.
+     * Must be called before connect() to take effect; otherwise it applies
+     * from the next cleared conversation.
      *
      * @param model The model name to use
      */
     public void setModel(String model) {
+        if (model.equals(this.model)) {
+            return;
+        }
         this.model = model;
+        // The spare was created for the previous model
+        discardSpareSession();
+        replenishSpareSession();
     }
 
     /**
@@ -144,21 +297,29 @@ public class CopilotChatService implements AutoCloseable {
     }
 
     /**
-     * Returns all available AI models from the Copilot API.
+     * Returns all available AI models from the Copilot API, fetching them in
+     * the background only if the cached list has expired. The client must
+     * be started, see {@link #connect()}.
      *
-     * @return List of available model names
+     * @return CompletableFuture with the list of available model names
      */
-    public java.util.List<String> getAvailableModels() {
-        try {
-            return client.listModels()
-                .join()
-                .stream()
-                .map(modelInfo -> modelInfo.getId())
-                .toList();
-        } catch (Exception e) {
-            LOG.log(Level.WARNING, "Failed to fetch models from API, using default", e);
-            return java.util.List.of("claude-sonnet-4", "gpt-4.1");
-        }
+    public CompletableFuture<List<String>> getAvailableModels() {
+        return modelCatalog.getModels();
+    }
+
+    /**
+     * Returns the available models without fetching them: the last fetched
+     * list, the one persisted by an earlier run, or a default list.
+     *
+     * @return CompletableFuture with the list of model names
+     */
+    public CompletableFuture<List<String>> getCachedModels() {
+        return modelCatalog.getCachedModels();
+    }
+
+    private CompletableFuture<List<String>> fetchModels() {
+        return client.listModels()
+            .thenApply(infos -> infos.stream().map(modelInfo -> modelInfo.getId()).toList());
     }
 
     private void subscribeToEvents() {
@@ -168,30 +329,110 @@ public class CopilotChatService implements AutoCloseable {
     }
 
     private void handleEvent(SessionEvent event) {
+        SessionEventRecorder recorder = eventRecorder;
+        if (recorder != null) {
+            recorder.accept(event);
+        }
         try {
             if (event instanceof AssistantMessageDeltaEvent deltaEvent) {
                 String delta = deltaEvent.getData().deltaContent();
+                if (firstTokenNanos == 0 && turnStartNanos != 0) {
+                    firstTokenNanos = System.nanoTime();
+                    metrics.recordSince(CopilotMetrics.Metric.TIME_TO_FIRST_TOKEN, turnStartNanos);
+                    commitFirstDeltaEvent(delta);
+                }
                 if (delta != null && streamingHandler != null) {
                     streamingHandler.accept(delta);
                 }
+                if (xmlExtractor.append(delta) && planCompleteHandler != null) {
+                    planCompleteHandler.accept(xmlExtractor.getPlanXml().orElseThrow());
+                }
             } else if (event instanceof AssistantMessageEvent messageEvent) {
+                xmlExtractor.reset();
                 String content = messageEvent.getData().content();
+                recordResponseMetrics(content);
                 if (content != null && !content.isBlank()) {
                     ChatMessage message = new ChatMessage(ChatMessage.Role.ASSISTANT, content);
                     conversationHistory.addMessage(message);
+                    String cacheKey = pendingCacheKey;
+                    if (cacheKey != null) {
+                        responseCache.put(cacheKey, content);
+                    }
                     if (messageHandler != null) {
                         messageHandler.accept(message);
                     }
                 }
+            } else if (event instanceof SessionIdleEvent) {
+                pendingCacheKey = null;
+                // A no-op after an error or abort, which already rolled the plan back
+                planTurnEnded(true);
+                promptQueue.turnFinished();
             } else if (event instanceof SessionErrorEvent errorEvent) {
                 LOG.log(Level.WARNING, "Session error: {0}",
                     errorEvent.getData() != null ? errorEvent.getData().message() : "Unknown error");
+                // An error ends the turn; no idle event is guaranteed to follow
+                pendingCacheKey = null;
+                planTurnEnded(false);
+                promptQueue.turnFinished();
             }
         } catch (Exception e) {
             LOG.log(Level.SEVERE, "Error handling event", e);
         }
     }
 
+    private void recordResponseMetrics(String content) {
+        long start = turnStartNanos;
+        long firstToken = firstTokenNanos;
+        turnStartNanos = 0;
+        firstTokenNanos = 0;
+        if (start == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        metrics.recordSince(CopilotMetrics.Metric.RESPONSE_TIME, start);
+        if (content != null && firstToken != 0 && now > firstToken) {
+            // Same estimate as the history's token budget: about four characters per token
+            double tokens = content.length() / 4.0;
+            metrics.record(CopilotMetrics.Metric.TOKENS_PER_SECOND, tokens / ((now - firstToken) / 1e9));
+        }
+    }
+
+    private void startTurnTimer() {
+        firstTokenNanos = 0;
+        turnStartNanos = System.nanoTime();
+        CopilotEvents.FirstDelta event = new CopilotEvents.FirstDelta();
+        event.model = model;
+        event.begin();
+        firstDeltaEvent = event;
+    }
+
+    private void commitFirstDeltaEvent(String delta) {
+        CopilotEvents.FirstDelta event = firstDeltaEvent;
+        firstDeltaEvent = null;
+        if (event != null) {
+            event.deltaLength = delta != null ? delta.length() : 0;
+            event.commit();
+        }
+    }
+
+    /**
+     * Sends a prompt on the current session, recording how long the session
+     * takes to accept it.
+     */
+    private CompletableFuture<String> sendToSession(String prompt) {
+        CopilotEvents.PromptSend event = new CopilotEvents.PromptSend();
+        event.model = model;
+        event.promptLength = prompt.length();
+        event.begin();
+        SessionEventRecorder recorder = eventRecorder;
+        if (recorder != null) {
+            recorder.promptSent(prompt);
+        }
+        CompletableFuture<String> sent = session.send(new MessageOptions().setPrompt(prompt));
+        sent.whenComplete((id, ex) -> event.commit());
+        return sent;
+    }
+
     /**
      * Sends a message to Copilot and returns immediately.
      * Use the streaming handler to receive response chunks.
@@ -207,8 +448,206 @@ public class CopilotChatService implements AutoCloseable {
 
         ChatMessage userMessage = new ChatMessage(ChatMessage.Role.USER, prompt);
         conversationHistory.addMessage(userMessage);
+        xmlExtractor.reset();
+
+        startTurnTimer();
+        return sendToSession(prompt);
+    }
+
+    /**
+     * Sends a message to Copilot, or queues it if a response is still being
+     * generated. Queued messages are sent in order, one turn at a time.
+     *
+     * @param prompt The user's message
+     * @return CompletableFuture with the message ID once the message has been
+     *         sent; failed if the queue is full, cancelled if the message is
+     *         cancelled while queued
+     */
+    public CompletableFuture<String> submitMessage(String prompt) {
+        if (!connected.get() || session == null) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Not connected. Call connect() first."));
+        }
+        return promptQueue.submit(prompt, snapshotPlan());
+    }
+
+    private CompletableFuture<String> dispatchPrompt(PromptQueue.Entry entry) {
+        if (!connected.get() || session == null) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Not connected. Call connect() first."));
+        }
+        String prompt = entry.prompt();
+        String planContext = describePlan(entry.plan());
+
+        // The cache key doesn't cover earlier turns or the open plan, so only
+        // first prompts sent without plan context are cached
+        boolean firstTurn = conversationHistory.getMessages().stream()
+            .allMatch(m -> m.getRole() == ChatMessage.Role.SYSTEM);
+        String cacheKey = responseCache != null && firstTurn && planContext.isEmpty()
+            ? ResponseCache.key(prompt, model, JMETER_SYSTEM_PROMPT)
+            : null;
+
+        ChatMessage userMessage = new ChatMessage(ChatMessage.Role.USER, prompt);
+        conversationHistory.addMessage(userMessage);
+        xmlExtractor.reset();
+        // Before sending, so the handler runs ahead of the first response event
+        if (promptDispatchedHandler != null) {
+            promptDispatchedHandler.accept(prompt);
+        }
+
+        if (cacheKey == null) {
+            return sendPrompt(prompt, planContext, null);
+        }
+        // Responses only on disk are looked up in the background, off the EDT
+        return responseCache.get(cacheKey).thenCompose(cached -> {
+            if (cached.isPresent()) {
+                deliverCachedResponse(prompt, cached.get());
+                return CompletableFuture.completedFuture(CACHED_MESSAGE_ID);
+            }
+            return sendPrompt(prompt, planContext, cacheKey);
+        });
+    }
+
+    private CompletableFuture<String> sendPrompt(String prompt, String planContext, String cacheKey) {
+        pendingCacheKey = cacheKey;
+        startTurnTimer();
+        String sessionPrompt = planContext + prompt;
+        if (cachedExchange != null) {
+            // The tracker already counts the plan as seen, so keep its context
+            sessionPrompt = cachedExchange + "My next request:\n" + sessionPrompt;
+            cachedExchange = null;
+        }
+        return sendToSession(sessionPrompt).whenComplete((id, ex) -> {
+            if (ex != null) {
+                planTurnEnded(false);
+            }
+        });
+    }
+
+    /**
+     * Tells the plan tracker whether the session has seen the plan sent with
+     * the turn that just ended.
+     */
+    private void planTurnEnded(boolean succeeded) {
+        PlanContextTracker tracker = planContext;
+        if (tracker == null) {
+            return;
+        }
+        if (succeeded) {
+            tracker.turnSucceeded();
+        } else {
+            tracker.turnFailed();
+        }
+    }
+
+    /**
+     * Returns a copy of the open test plan if plan context is enabled, taken
+     * on the submitting thread so queued prompts don't read the GUI later.
+     */
+    private HashTree snapshotPlan() {
+        Supplier<HashTree> supplier = planSupplier;
+        if (planContext == null || supplier == null) {
+            return null;
+        }
+        try {
+            HashTree plan = supplier.get();
+            return plan != null ? PlanContextTracker.snapshot(plan) : null;
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Could not read the open test plan", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the changes to the plan the session hasn't seen, to prefix the
+     * prompt with, or an empty string.
+     */
+    private String describePlan(HashTree snapshot) {
+        PlanContextTracker tracker = planContext;
+        return tracker != null && snapshot != null ? tracker.nextContext(snapshot) : "";
+    }
+
+    private void deliverCachedResponse(String prompt, String response) {
+        LOG.fine("Serving response from the response cache");
+        ChatMessage message = new ChatMessage(ChatMessage.Role.ASSISTANT, response,
+            System.currentTimeMillis(), true);
+        conversationHistory.addMessage(message);
+        if (messageHandler != null) {
+            messageHandler.accept(message);
+        }
+        carryOverExchange(prompt, response);
+        // No session turn was started, so no idle event will follow
+        promptQueue.turnFinished();
+    }
+
+    /**
+     * Remembers a turn the session never saw, to pass it along with the next
+     * prompt.
+     */
+    private void carryOverExchange(String prompt, String response) {
+        String earlier = cachedExchange;
+        cachedExchange = (earlier != null ? earlier : "")
+            + "For context, earlier in this conversation I asked:\n" + prompt
+            + "\n\nand you answered:\n" + response + "\n\n";
+    }
+
+    /**
+     * Returns the messages waiting to be sent, oldest first.
+     */
+    List<PromptQueue.Entry> getQueuedPrompts() {
+        return promptQueue.entries();
+    }
 
-        return session.send(new MessageOptions().setPrompt(prompt));
+    /**
+     * Removes a queued message before it is sent.
+     *
+     * @param id The ID of the queued message
+     * @return true if the message was still queued
+     */
+    boolean cancelQueuedPrompt(long id) {
+        return promptQueue.cancel(id);
+    }
+
+    /**
+     * Sends a message to several models at once, each in a new session, and
+     * keeps the first response containing a test plan that parses. The others
+     * are aborted. The winning response is added to the conversation and
+     * passed to the message handler. The main session didn't take part, so
+     * the exchange is passed along with the next prompt.
+     *
+     * @param prompt    The user's message
+     * @param models    The models to send it to
+     * @param xmlParser Parser used to validate the responses
+     * @return CompletableFuture with the winning model and response
+     */
+    CompletableFuture<ModelFanout.Result> sendMessageFanout(String prompt, List<String> models,
+            JMeterXmlParser xmlParser) {
+        if (!connected.get()) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Not connected. Call connect() first."));
+        }
+
+        ChatMessage userMessage = new ChatMessage(ChatMessage.Role.USER, prompt);
+        conversationHistory.addMessage(userMessage);
+        xmlExtractor.reset();
+
+        ModelFanout fanout = new ModelFanout(this::createSession, xmlParser, CopilotExecutors.background());
+        activeFanout = fanout;
+        return fanout.run(prompt, models)
+            .whenComplete((result, ex) -> {
+                if (activeFanout == fanout) {
+                    activeFanout = null;
+                }
+            })
+            .thenApply(result -> {
+                ChatMessage message = new ChatMessage(ChatMessage.Role.ASSISTANT, result.content());
+                conversationHistory.addMessage(message);
+                carryOverExchange(prompt, result.content());
+                if (messageHandler != null) {
+                    messageHandler.accept(message);
+                }
+                return result;
+            });
     }
 
     /**
@@ -253,6 +692,71 @@ public class CopilotChatService implements AutoCloseable {
         this.messageHandler = handler;
     }
 
+    /**
+     * Sets a handler notified with the test plan XML as soon as its closing tag
+     * has been streamed, before the rest of the response arrives.
+     *
+     * @param handler Consumer that receives the extracted test plan XML
+     */
+    public void setPlanCompleteHandler(Consumer<String> handler) {
+        this.planCompleteHandler = handler;
+    }
+
+    /**
+     * Records the session events and prompts to the given recorder, or stops
+     * recording if null. The recorder is closed with the service.
+     */
+    void setEventRecorder(SessionEventRecorder recorder) {
+        this.eventRecorder = recorder;
+    }
+
+    /**
+     * Sets a handler notified with each submitted message right before it is
+     * sent, i.e. when its turn starts.
+     *
+     * @param handler Consumer that receives the message being sent
+     */
+    public void setPromptDispatchedHandler(Consumer<String> handler) {
+        this.promptDispatchedHandler = handler;
+    }
+
+    /**
+     * Sets a handler notified whenever messages are queued, sent or cancelled.
+     *
+     * @param handler Runnable invoked on each change of the queue
+     */
+    public void setQueueChangedHandler(Runnable handler) {
+        promptQueue.setChangeListener(handler);
+    }
+
+    /**
+     * Sets the supplier of the test plan open in JMeter. When plan context is
+     * enabled, the changes made to it since the last prompt are sent along
+     * with the next one. The supplier is called by {@link #submitMessage},
+     * on the thread submitting the prompt.
+     */
+    public void setPlanSupplier(Supplier<HashTree> supplier) {
+        this.planSupplier = supplier;
+    }
+
+    /**
+     * Records that the session knows this version of the plan, e.g. because
+     * the plan was generated by the model and has just been loaded.
+     */
+    public void markPlanSeen(HashTree plan) {
+        PlanContextTracker tracker = planContext;
+        if (tracker != null) {
+            tracker.markSeen(plan);
+        }
+    }
+
+    /**
+     * Sends plan context using the given tracker, or stops sending it if null.
+     */
+    void setPlanContext(PlanContextTracker tracker) {
+        this.planContext = tracker;
+    }
+
     /**
      * Returns the conversation history.
      */
@@ -261,12 +765,22 @@ public class CopilotChatService implements AutoCloseable {
     }
 
     /**
-     * Clears the conversation and starts a new session.
+     * Clears the conversation and switches to the spare session, which is
+     * usually ready already. A new spare is then created in the background.
+     * Queued messages are cancelled.
      *
      * @return CompletableFuture that completes when the new session is ready
      */
     public CompletableFuture<Void> clearConversation() {
         conversationHistory.clear();
+        xmlExtractor.reset();
+        promptQueue.clear();
+        pendingCacheKey = null;
+        cachedExchange = null;
+        PlanContextTracker tracker = planContext;
+        if (tracker != null) {
+            tracker.reset();
+        }
 
         if (session != null) {
             try {
@@ -280,13 +794,14 @@ public class CopilotChatService implements AutoCloseable {
             session = null;
         }
 
-        // Only create a new session if we're connected
+        // Only switch to a new session if we're connected
         if (connected.get()) {
-            return createSession()
-                .thenAccept(s -> {
+            return takeSpareSession()
+                .thenAcceptAsync(s -> {
                     this.session = s;
                     subscribeToEvents();
-                })
+                    replenishSpareSession();
+                }, CopilotExecutors.background())
                 .exceptionally(ex -> {
                     LOG.log(Level.WARNING, "Failed to create new session after clear", ex);
                     return null;
@@ -304,11 +819,20 @@ public class CopilotChatService implements AutoCloseable {
     }
 
     /**
-     * Aborts the current request.
+     * Aborts the current request. The next queued prompt is sent once the
+     * session has aborted, whether or not it reports the turn as idle.
      */
     public CompletableFuture<Void> abort() {
+        ModelFanout fanout = activeFanout;
+        if (fanout != null) {
+            fanout.abort();
+        }
         if (session != null) {
-            return session.abort();
+            long turn = promptQueue.activeTurn();
+            planTurnEnded(false);
+            // Sends the next queued prompt, so not on the SDK's completion thread
+            return session.abort().whenCompleteAsync((result, ex) -> promptQueue.turnFinished(turn),
+                CopilotExecutors.background());
         }
         return CompletableFuture.completedFuture(null);
     }
@@ -316,6 +840,15 @@ public class CopilotChatService implements AutoCloseable {
     @Override
     public void close() {
         connected.set(false);
+        synchronized (this) {
+            connection = null;
+        }
+        discardSpareSession();
+        promptQueue.clear();
+        ModelFanout fanout = activeFanout;
+        if (fanout != null) {
+            fanout.abort();
+        }
 
         if (eventSubscription != null) {
             try {
@@ -333,6 +866,16 @@ public class CopilotChatService implements AutoCloseable {
             }
         }
 
+        SessionEventRecorder recorder = eventRecorder;
+        eventRecorder = null;
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "Error closing session event recording", e);
+            }
+        }
+
         try {
             client.close();
         } catch (Exception e) {
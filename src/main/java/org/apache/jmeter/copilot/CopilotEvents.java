@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import org.apache.jorphan.collections.HashTree;
+
+/**
+ * Java Flight Recorder events for the phases of the chat and test plan
+ * loading pipeline. Each event's duration covers one phase, so a recording
+ * taken while JMeter is sluggish shows which phase the time went to.
+ * <p>
+ * Events are committed only while a recording is running, and cost next to
+ * nothing otherwise.
+ */
+final class CopilotEvents {
+
+    private static final String CATEGORY = "Copilot";
+
+    private CopilotEvents() {
+        // Holder for the event classes
+    }
+
+    /**
+     * Counts the elements of a test plan tree, at all depths.
+     */
+    static int countElements(HashTree tree) {
+        int count = 0;
+        for (Object key : tree.list()) {
+            count += 1 + countElements(tree.getTree(key));
+        }
+        return count;
+    }
+
+    @Name("org.apache.jmeter.copilot.Connect")
+    @Label("Copilot Connect")
+    @Description("Starting the Copilot client and creating the chat session")
+    @Category({"JMeter", CATEGORY})
+    @StackTrace(false)
+    static final class Connect extends Event {
+        @Label("Model")
+        String model;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("org.apache.jmeter.copilot.PromptSend")
+    @Label("Copilot Prompt Send")
+    @Description("Sending a prompt until the session has accepted it")
+    @Category({"JMeter", CATEGORY})
+    @StackTrace(false)
+    static final class PromptSend extends Event {
+        @Label("Model")
+        String model;
+
+        @Label("Prompt Length")
+        @Description("Characters sent to the session, including carried over context")
+        int promptLength;
+    }
+
+    @Name("org.apache.jmeter.copilot.FirstDelta")
+    @Label("Copilot First Delta")
+    @Description("Time from sending a prompt to the first streamed chunk of the response")
+    @Category({"JMeter", CATEGORY})
+    @StackTrace(false)
+    static final class FirstDelta extends Event {
+        @Label("Model")
+        String model;
+
+        @Label("Delta Length")
+        int deltaLength;
+    }
+
+    @Name("org.apache.jmeter.copilot.Render")
+    @Label("Copilot Render")
+    @Description("Rendering the conversation, the streaming message or a message list cell to HTML")
+    @Category({"JMeter", CATEGORY})
+    @StackTrace(false)
+    static final class Render extends Event {
+        static final String TRANSCRIPT = "transcript";
+        static final String STREAMING = "streaming";
+        static final String LIST_CELL = "list cell";
+
+        @Label("Pass")
+        @Description("What was rendered: the transcript, the streaming message or a list cell")
+        String pass;
+
+        @Label("Message Count")
+        int messageCount;
+
+        @Label("HTML Length")
+        int htmlLength;
+    }
+
+    @Name("org.apache.jmeter.copilot.XmlExtraction")
+    @Label("Copilot XML Extraction")
+    @Description("Finding the test plan XML in a response")
+    @Category({"JMeter", CATEGORY})
+    @StackTrace(false)
+    static final class XmlExtraction extends Event {
+        @Label("Text Length")
+        int textLength;
+
+        @Label("XML Length")
+        @Description("Length of the extracted XML, zero if none was found")
+        int xmlLength;
+    }
+
+    @Name("org.apache.jmeter.copilot.LoadTree")
+    @Label("Copilot Load Tree")
+    @Description("Parsing test plan XML with SaveService")
+    @Category({"JMeter", CATEGORY})
+    @StackTrace(false)
+    static final class LoadTree extends Event {
+        @Label("XML Length")
+        int xmlLength;
+
+        @Label("Element Count")
+        int elementCount;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("org.apache.jmeter.copilot.InsertLoadedTree")
+    @Label("Copilot Insert Loaded Tree")
+    @Description("Inserting a generated test plan into the JMeter tree")
+    @Category({"JMeter", CATEGORY})
+    @StackTrace(false)
+    static final class InsertLoadedTree extends Event {
+        @Label("Element Count")
+        int elementCount;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("org.apache.jmeter.copilot.MergeTree")
+    @Label("Copilot Merge Tree")
+    @Description("Merging a generated test plan into the JMeter tree")
+    @Category({"JMeter", CATEGORY})
+    @StackTrace(false)
+    static final class MergeTree extends Event {
+        @Label("Added")
+        int added;
+
+        @Label("Removed")
+        int removed;
+
+        @Label("Modified")
+        int modified;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executors owned by the plugin, so its background work neither competes
+ * with JMeter's pools nor uses up SwingWorker's ten threads.
+ * <p>
+ * File reads, parsing and other blocking work run on the background executor:
+ * virtual threads on Java 21 and later, a small pool of daemon threads on
+ * Java 17. Timed work runs on a single scheduler thread and should hand
+ * anything slow over to the background executor.
+ * <p>
+ * Work deliberately left elsewhere: session events are handled on the SDK's
+ * event thread, as it delivers them in order, and UI updates on the EDT.
+ */
+final class CopilotExecutors {
+
+    private static final Logger LOG = Logger.getLogger(CopilotExecutors.class.getName());
+
+    static final String WORKER_NAME_PREFIX = "copilot-worker-";
+    static final String SCHEDULER_NAME = "copilot-scheduler";
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private CopilotExecutors() {
+        // Static holder
+    }
+
+    private static final class BackgroundHolder {
+        static final TrackingExecutor INSTANCE = new TrackingExecutor(createBackgroundExecutor());
+    }
+
+    private static final class SchedulerHolder {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, SCHEDULER_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the executor for blocking background work.
+     */
+    static Executor background() {
+        return BackgroundHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the scheduler for timed work.
+     */
+    static ScheduledExecutorService scheduler() {
+        return SchedulerHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the number of background tasks waiting for a thread.
+     */
+    static int getQueueDepth() {
+        return BackgroundHolder.INSTANCE.queued.get();
+    }
+
+    /**
+     * Returns the number of background tasks running.
+     */
+    static int getActiveCount() {
+        return BackgroundHolder.INSTANCE.active.get();
+    }
+
+    /**
+     * Returns the number of background tasks that have finished.
+     */
+    static long getCompletedCount() {
+        return BackgroundHolder.INSTANCE.completed.get();
+    }
+
+    /**
+     * Returns whether background tasks run on virtual threads.
+     */
+    static boolean usesVirtualThreads() {
+        return BackgroundHolder.INSTANCE.virtualThreads;
+    }
+
+    private static ExecutorService createBackgroundExecutor() {
+        ExecutorService virtual = createVirtualThreadExecutor();
+        if (virtual != null) {
+            return virtual;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, WORKER_NAME_PREFIX + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Creates a thread-per-task executor of virtual threads, or returns null
+     * before Java 21. Reflection keeps the plugin compatible with Java 17.
+     */
+    static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, WORKER_NAME_PREFIX, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.log(Level.FINE, "Virtual threads unavailable, using platform threads", e);
+            return null;
+        }
+    }
+
+    /**
+     * Counts the tasks passing through an executor.
+     */
+    private static final class TrackingExecutor implements Executor {
+
+        private final ExecutorService delegate;
+        private final boolean virtualThreads;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicLong completed = new AtomicLong();
+
+        TrackingExecutor(ExecutorService delegate) {
+            this.delegate = delegate;
+            this.virtualThreads = !(delegate instanceof ThreadPoolExecutor);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            queued.incrementAndGet();
+            try {
+                delegate.execute(() -> {
+                    queued.decrementAndGet();
+                    active.incrementAndGet();
+                    try {
+                        task.run();
+                    } finally {
+                        active.decrementAndGet();
+                        completed.incrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                queued.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+}
@@ -32,6 +32,11 @@ import org.apache.jmeter.gui.plugin.MenuCreator;
  */
 public class CopilotMenuCreator implements MenuCreator {
 
+    public CopilotMenuCreator() {
+        // Menu creators are instantiated at GUI startup, the earliest point a plugin is called
+        CopilotPreconnector.startIfEnabled();
+    }
+
     @Override
     public JMenuItem[] getMenuItemsAtLocation(MENU_LOCATION location) {
         if (location == MENU_LOCATION.TOOLS) {
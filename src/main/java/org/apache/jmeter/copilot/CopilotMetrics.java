@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Latency and throughput metrics of the plugin.
+ * <p>
+ * Each metric keeps its most recent {@value #WINDOW_SIZE} samples, from which
+ * percentiles are computed on demand. The shared instance is registered as a
+ * platform MBean, so the metrics can be watched from JConsole or VisualVM.
+ */
+public final class CopilotMetrics implements CopilotMetricsMXBean {
+
+    private static final Logger LOG = Logger.getLogger(CopilotMetrics.class.getName());
+
+    /**
+     * JMX object name the shared instance is registered under.
+     */
+    public static final String OBJECT_NAME = "org.apache.jmeter.copilot:type=Metrics";
+
+    /**
+     * Number of recent samples kept per metric.
+     */
+    static final int WINDOW_SIZE = 1000;
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * The measurements taken.
+     */
+    enum Metric {
+        TIME_TO_FIRST_TOKEN,
+        RESPONSE_TIME,
+        TOKENS_PER_SECOND,
+        PARSE_TIME,
+        RENDER_TIME,
+        EDT_REFRESH_TIME
+    }
+
+    private static CopilotMetrics instance;
+
+    private final Map<Metric, RollingWindow> windows = new EnumMap<>(Metric.class);
+
+    CopilotMetrics() {
+        for (Metric metric : Metric.values()) {
+            windows.put(metric, new RollingWindow(WINDOW_SIZE));
+        }
+    }
+
+    /**
+     * Returns the shared instance, registering it as a platform MBean on first use.
+     */
+    static synchronized CopilotMetrics getInstance() {
+        if (instance == null) {
+            instance = new CopilotMetrics();
+            register(instance);
+        }
+        return instance;
+    }
+
+    private static void register(CopilotMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Another copy of the plugin, e.g. loaded by a different class loader
+            LOG.log(Level.FINE, "Copilot metrics MBean is already registered", e);
+        } catch (JMException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Could not register Copilot metrics MBean", e);
+        }
+    }
+
+    /**
+     * Records a sample.
+     */
+    void record(Metric metric, double value) {
+        windows.get(metric).add(value);
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, in milliseconds.
+     */
+    void recordSince(Metric metric, long startNanos) {
+        record(metric, (System.nanoTime() - startNanos) / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Returns the summary of the recent samples of a metric.
+     */
+    MetricSnapshot snapshot(Metric metric) {
+        return windows.get(metric).snapshot();
+    }
+
+    @Override
+    public MetricSnapshot getTimeToFirstTokenMillis() {
+        return snapshot(Metric.TIME_TO_FIRST_TOKEN);
+    }
+
+    @Override
+    public MetricSnapshot getResponseTimeMillis() {
+        return snapshot(Metric.RESPONSE_TIME);
+    }
+
+    @Override
+    public MetricSnapshot getTokensPerSecond() {
+        return snapshot(Metric.TOKENS_PER_SECOND);
+    }
+
+    @Override
+    public MetricSnapshot getParseTimeMillis() {
+        return snapshot(Metric.PARSE_TIME);
+    }
+
+    @Override
+    public MetricSnapshot getRenderTimeMillis() {
+        return snapshot(Metric.RENDER_TIME);
+    }
+
+    @Override
+    public MetricSnapshot getEdtRefreshTimeMillis() {
+        return snapshot(Metric.EDT_REFRESH_TIME);
+    }
+
+    @Override
+    public int getBackgroundQueueDepth() {
+        return CopilotExecutors.getQueueDepth();
+    }
+
+    @Override
+    public int getBackgroundActiveTasks() {
+        return CopilotExecutors.getActiveCount();
+    }
+
+    @Override
+    public long getBackgroundCompletedTasks() {
+        return CopilotExecutors.getCompletedCount();
+    }
+
+    @Override
+    public void reset() {
+        windows.values().forEach(RollingWindow::clear);
+    }
+
+    /**
+     * Fixed-size ring of the most recent samples.
+     */
+    private static final class RollingWindow {
+
+        private final double[] samples;
+        private long count; // Guarded by "this"
+
+        RollingWindow(int size) {
+            this.samples = new double[size];
+        }
+
+        synchronized void add(double value) {
+            samples[(int) (count % samples.length)] = value;
+            count++;
+        }
+
+        synchronized void clear() {
+            count = 0;
+        }
+
+        MetricSnapshot snapshot() {
+            double[] recent;
+            long total;
+            synchronized (this) {
+                total = count;
+                recent = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            }
+            if (recent.length == 0) {
+                return new MetricSnapshot(0, 0, 0, 0, 0, 0);
+            }
+            Arrays.sort(recent);
+            double sum = 0;
+            for (double sample : recent) {
+                sum += sample;
+            }
+            return new MetricSnapshot(total, sum / recent.length, percentile(recent, 50),
+                percentile(recent, 95), percentile(recent, 99), recent[recent.length - 1]);
+        }
+
+        private static double percentile(double[] sorted, int percentile) {
+            // Nearest-rank method
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+/**
+ * Management interface of the plugin's latency and throughput metrics,
+ * registered as {@value CopilotMetrics#OBJECT_NAME}.
+ * <p>
+ * Each attribute summarizes the most recent samples of one measurement.
+ */
+public interface CopilotMetricsMXBean {
+
+    /**
+     * Time from sending a prompt to the first streamed chunk, in milliseconds.
+     */
+    MetricSnapshot getTimeToFirstTokenMillis();
+
+    /**
+     * Time from sending a prompt to the complete response, in milliseconds.
+     */
+    MetricSnapshot getResponseTimeMillis();
+
+    /**
+     * Estimated tokens per second while a response streams.
+     */
+    MetricSnapshot getTokensPerSecond();
+
+    /**
+     * Time to parse a generated test plan, in milliseconds.
+     */
+    MetricSnapshot getParseTimeMillis();
+
+    /**
+     * Time to render the conversation to HTML, in milliseconds.
+     */
+    MetricSnapshot getRenderTimeMillis();
+
+    /**
+     * Time the event dispatch thread spends per chat refresh, in milliseconds.
+     */
+    MetricSnapshot getEdtRefreshTimeMillis();
+
+    /**
+     * Number of background tasks waiting for a thread.
+     */
+    int getBackgroundQueueDepth();
+
+    /**
+     * Number of background tasks running.
+     */
+    int getBackgroundActiveTasks();
+
+    /**
+     * Number of background tasks that have finished.
+     */
+    long getBackgroundCompletedTasks();
+
+    /**
+     * Discards all samples.
+     */
+    void reset();
+}
@@ -164,13 +164,18 @@ public class CopilotPanelManager {
      */
     @SuppressWarnings("MethodCanBeStatic")
     private void loadTestPlan(HashTree tree) {
+        CopilotEvents.InsertLoadedTree insertEvent = new CopilotEvents.InsertLoadedTree();
+        insertEvent.begin();
         try {
             GuiPackage guiPackage = GuiPackage.getInstance();
             if (guiPackage != null) {
                 // Use JMeter's Load.insertLoadedTree which properly handles
                 // GUI component initialization and tree insertion
                 ActionEvent event = new ActionEvent(this, ActionEvent.ACTION_PERFORMED, ActionNames.OPEN);
+                int elementCount = insertEvent.isEnabled() ? CopilotEvents.countElements(tree) : 0;
                 Load.insertLoadedTree(event.getID(), tree);
+                insertEvent.elementCount = elementCount;
+                insertEvent.succeeded = true;
 
                 LOG.info("Test plan loaded from Copilot");
             }
@@ -180,6 +185,8 @@ public class CopilotPanelManager {
         } catch (Exception e) {
             LOG.severe("Failed to load test plan: " + e.getMessage());
             throw new RuntimeException("Failed to load test plan", e);
+        } finally {
+            insertEvent.commit();
         }
     }
 
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.jmeter.util.JMeterUtils;
+
+/**
+ * Starts the Copilot client and a standby session in the background at JMeter
+ * startup, so the first prompt doesn't pay for the connection.
+ * <p>
+ * The warm service is handed to the first chat panel that is created. If no
+ * panel claims it within the idle timeout, it is shut down again. Pre-connecting
+ * is opt-in through {@link #PRECONNECT_PROPERTY}.
+ */
+class CopilotPreconnector {
+
+    private static final Logger LOG = Logger.getLogger(CopilotPreconnector.class.getName());
+
+    /**
+     * jmeter.properties key enabling the background pre-connect at startup.
+     */
+    static final String PRECONNECT_PROPERTY = "copilot.preconnect";
+
+    /**
+     * jmeter.properties key for how long an unclaimed pre-connected service is kept.
+     */
+    static final String IDLE_TIMEOUT_PROPERTY = "copilot.preconnect.idle_timeout_seconds";
+    static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 600;
+
+    private static CopilotPreconnector instance;
+
+    private final Supplier<CopilotChatService> serviceFactory;
+    private final ScheduledExecutorService scheduler;
+    private final Executor background;
+    private final long idleTimeoutSeconds;
+
+    // Guarded by "this"
+    private CopilotChatService standby;
+    private ScheduledFuture<?> idleShutdown;
+    private boolean started;
+
+    CopilotPreconnector(Supplier<CopilotChatService> serviceFactory, ScheduledExecutorService scheduler,
+            Executor background, long idleTimeoutSeconds) {
+        this.serviceFactory = serviceFactory;
+        this.scheduler = scheduler;
+        this.background = background;
+        this.idleTimeoutSeconds = idleTimeoutSeconds;
+    }
+
+    /**
+     * Starts the background pre-connect if it is enabled in jmeter.properties.
+     * Only the first call has an effect.
+     */
+    static synchronized void startIfEnabled() {
+        if (instance != null || !JMeterUtils.getPropDefault(PRECONNECT_PROPERTY, false)) {
+            return;
+        }
+        instance = new CopilotPreconnector(CopilotChatService::new, CopilotExecutors.scheduler(),
+            CopilotExecutors.background(),
+            JMeterUtils.getPropDefault(IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT_SECONDS));
+        instance.start();
+    }
+
+    /**
+     * Returns the pre-connected service if there is one, or a new, unconnected service.
+     */
+    static synchronized CopilotChatService claimOrCreateService() {
+        CopilotChatService service = instance != null ? instance.claim() : null;
+        return service != null ? service : new CopilotChatService();
+    }
+
+    /**
+     * Creates the service and connects it on the background executor; the
+     * scheduler only times the idle shutdown.
+     */
+    synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        background.execute(this::connectStandby);
+        idleShutdown = scheduler.schedule(this::shutdownIdle, idleTimeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Hands out the standby service, at most once. The service may still be
+     * connecting; calling connect() on it picks up the pending connection.
+     *
+     * @return the standby service, or null if there is none
+     */
+    synchronized CopilotChatService claim() {
+        if (idleShutdown != null) {
+            idleShutdown.cancel(false);
+            idleShutdown = null;
+        }
+        // Null if not created yet or already shut down; the caller then connects on its own
+        CopilotChatService service = standby;
+        standby = null;
+        return service;
+    }
+
+    private void connectStandby() {
+        synchronized (this) {
+            // Claimed before the scheduler got here
+            if (idleShutdown == null) {
+                return;
+            }
+        }
+        CopilotChatService service;
+        try {
+            service = serviceFactory.get();
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Could not create Copilot service for pre-connect", e);
+            return;
+        }
+        synchronized (this) {
+            if (idleShutdown == null) {
+                service.close();
+                return;
+            }
+            standby = service;
+        }
+        LOG.info("Pre-connecting to GitHub Copilot in the background");
+        service.connect().exceptionally(ex -> {
+            LOG.log(Level.WARNING, "Background pre-connect to GitHub Copilot failed", ex);
+            return null;
+        });
+    }
+
+    private void shutdownIdle() {
+        CopilotChatService service;
+        synchronized (this) {
+            service = standby;
+            standby = null;
+            idleShutdown = null;
+        }
+        if (service != null) {
+            LOG.info("Closing unused pre-connected Copilot session after idle timeout");
+            service.close();
+        }
+    }
+}
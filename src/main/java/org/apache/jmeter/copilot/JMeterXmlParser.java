@@ -19,11 +19,18 @@ package org.apache.jmeter.copilot;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.jmeter.engine.TreeCloner;
 import org.apache.jmeter.save.SaveService;
+import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.collections.HashTree;
 
 /**
@@ -33,14 +40,23 @@ import org.apache.jorphan.collections.HashTree;
  */
 public class JMeterXmlParser {
 
-    private static final Pattern XML_CODE_BLOCK_PATTERN =
-        Pattern.compile("```(?:xml)?\\s*([\\s\\S]*?)```", Pattern.MULTILINE);
+    /**
+     * jmeter.properties key for the total size, in characters of XML, of the parsed plans kept in memory.
+     */
+    static final String PARSE_CACHE_MAX_CHARS_PROPERTY = "copilot.parse_cache.max_chars";
+    static final long DEFAULT_PARSE_CACHE_MAX_CHARS = 8_000_000;
 
-    private static final Pattern JMETER_TEST_PLAN_PATTERN =
-        Pattern.compile("<jmeterTestPlan[^>]*>[\\s\\S]*</jmeterTestPlan>", Pattern.MULTILINE);
+    /**
+     * Error message of parses that were cancelled.
+     */
+    static final String CANCELLED_MESSAGE = "Parsing was cancelled";
 
-    private static final Pattern JMX_FILE_PATH_PATTERN =
-        Pattern.compile("(?:`([^`]+\\.jmx)`|\\b([a-zA-Z]:)?[/\\\\]?(?:[\\w.\\-]+[/\\\\])*[\\w.\\-]+\\.jmx\\b)", Pattern.CASE_INSENSITIVE);
+    // Parsed plans keyed by the SHA-256 of their XML, weighted by XML length; guarded by itself
+    private final Map<String, ParseResult> parseCache = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxCachedChars;
+    private long cachedChars;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
 
     /**
      * Result of parsing XML content.
@@ -59,6 +75,21 @@ public class JMeterXmlParser {
         }
     }
 
+    /**
+     * Creates a parser whose cache size is configured in jmeter.properties.
+     */
+    public JMeterXmlParser() {
+        this(JMeterUtils.getPropDefault(PARSE_CACHE_MAX_CHARS_PROPERTY, DEFAULT_PARSE_CACHE_MAX_CHARS));
+    }
+
+    /**
+     * Creates a parser that keeps parsed plans with up to {@code maxCachedChars}
+     * characters of XML in total. Zero disables the cache.
+     */
+    public JMeterXmlParser(long maxCachedChars) {
+        this.maxCachedChars = maxCachedChars;
+    }
+
     /**
      * Extracts XML content from text that may contain markdown code blocks.
      *
@@ -70,27 +101,29 @@ public class JMeterXmlParser {
             return Optional.empty();
         }
 
+        CopilotEvents.XmlExtraction event = new CopilotEvents.XmlExtraction();
+        event.begin();
+        Optional<String> xml = scanForXml(text);
+        event.textLength = text.length();
+        event.xmlLength = xml.map(String::length).orElse(0);
+        event.commit();
+        return xml;
+    }
+
+    private static Optional<String> scanForXml(String text) {
+        MarkdownXmlScanner.ScanResult scan = MarkdownXmlScanner.scan(text);
+
         // First try to find XML in code blocks
-        Matcher codeBlockMatcher = XML_CODE_BLOCK_PATTERN.matcher(text);
-        while (codeBlockMatcher.find()) {
-            String blockContent = codeBlockMatcher.group(1).trim();
+        for (MarkdownXmlScanner.CodeBlock block : scan.codeBlocks()) {
+            String blockContent = block.content().trim();
             if (blockContent.contains("<jmeterTestPlan")) {
                 return Optional.of(blockContent);
             }
         }
 
-        // Then try to find raw jmeterTestPlan XML
-        Matcher rawXmlMatcher = JMETER_TEST_PLAN_PATTERN.matcher(text);
-        if (rawXmlMatcher.find()) {
-            String xmlContent = rawXmlMatcher.group();
-            // Add XML declaration if not present
-            if (!xmlContent.startsWith("<?xml")) {
-                xmlContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + xmlContent;
-            }
-            return Optional.of(xmlContent);
-        }
-
-        return Optional.empty();
+        // Then try to find raw jmeterTestPlan XML, adding the XML declaration
+        return scan.rawPlan()
+            .map(xmlContent -> "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + xmlContent);
     }
 
     /**
@@ -101,31 +134,157 @@ public class JMeterXmlParser {
      * @return ParseResult containing the HashTree or error message
      */
     public ParseResult parseXml(String content) {
+        return parseXml(content, CancellationToken.NONE);
+    }
+
+    /**
+     * Parses JMeter XML content into a HashTree, stopping early if the token
+     * is cancelled.
+     */
+    ParseResult parseXml(String content, CancellationToken token) {
         Optional<String> extractedXml = extractXmlFromText(content);
 
         if (extractedXml.isEmpty()) {
             return ParseResult.failure("No valid JMeter test plan XML found in the response");
         }
 
-        String xml = extractedXml.get();
+        return parseExtractedXml(extractedXml.get(), token);
+    }
+
+    /**
+     * Parses XML already extracted with {@link #extractXmlFromText(String)}.
+     * Successful results are cached, so parsing the same plan again only
+     * costs a copy of the tree.
+     *
+     * @param xml The extracted JMeter XML
+     * @return ParseResult containing the HashTree or error message
+     */
+    public ParseResult parseExtractedXml(String xml) {
+        return parseExtractedXml(xml, CancellationToken.NONE);
+    }
 
+    /**
+     * Parses XML already extracted with {@link #extractXmlFromText(String)},
+     * stopping early if the token is cancelled. A parse that is cancelled
+     * fails and is not cached.
+     */
+    ParseResult parseExtractedXml(String xml, CancellationToken token) {
+        if (token.isCancelled()) {
+            return ParseResult.failure(CANCELLED_MESSAGE);
+        }
+        String key = maxCachedChars > 0 ? sha256(xml) : null;
+        if (key != null) {
+            ParseResult cached;
+            synchronized (parseCache) {
+                cached = parseCache.get(key);
+            }
+            if (cached != null) {
+                cacheHits.incrementAndGet();
+                // Callers insert the tree into the test plan, so never hand out the cached one
+                return ParseResult.success(cloneTree(cached.tree()), xml);
+            }
+            cacheMisses.incrementAndGet();
+        }
+
+        HashTree tree = null;
+        long start = System.nanoTime();
+        CopilotEvents.LoadTree event = new CopilotEvents.LoadTree();
+        event.xmlLength = xml.length();
+        event.begin();
         try {
-            HashTree tree = loadFromXml(xml);
-            return ParseResult.success(tree, xml);
+            tree = loadFromXml(xml, token);
         } catch (Exception e) {
+            if (token.isCancelled()) {
+                return ParseResult.failure(CANCELLED_MESSAGE);
+            }
             return ParseResult.failure("Failed to parse JMeter XML: " + e.getMessage());
+        } finally {
+            CopilotMetrics.getInstance().recordSince(CopilotMetrics.Metric.PARSE_TIME, start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.succeeded = tree != null;
+                event.elementCount = tree != null ? CopilotEvents.countElements(tree) : 0;
+                event.commit();
+            }
+        }
+        if (tree == null) {
+            return ParseResult.failure("Failed to parse JMeter XML: no test plan found");
+        }
+        if (token.isCancelled()) {
+            return ParseResult.failure(CANCELLED_MESSAGE);
+        }
+        if (key != null && xml.length() <= maxCachedChars) {
+            cacheResult(key, ParseResult.success(cloneTree(tree), xml));
         }
+        return ParseResult.success(tree, xml);
+    }
+
+    /**
+     * Returns the number of parses served from the cache.
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns the number of parses that missed the cache.
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
     }
 
     /**
-     * Parses raw JMeter XML content directly.
+     * Discards all cached parse results.
+     */
+    public void clearCache() {
+        synchronized (parseCache) {
+            parseCache.clear();
+            cachedChars = 0;
+        }
+    }
+
+    private void cacheResult(String key, ParseResult result) {
+        synchronized (parseCache) {
+            ParseResult previous = parseCache.put(key, result);
+            if (previous != null) {
+                cachedChars -= previous.extractedXml().length();
+            }
+            cachedChars += result.extractedXml().length();
+
+            // Evict least recently used plans until the total weight fits
+            Iterator<ParseResult> eldest = parseCache.values().iterator();
+            while (cachedChars > maxCachedChars && eldest.hasNext()) {
+                cachedChars -= eldest.next().extractedXml().length();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static HashTree cloneTree(HashTree tree) {
+        TreeCloner cloner = new TreeCloner(false);
+        tree.traverse(cloner);
+        return cloner.getClonedTree();
+    }
+
+    static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Parses raw JMeter XML content. SaveService only loads trees from files,
+     * so the XML goes through a temporary file.
      *
      * @param xml The raw JMeter XML content
      * @return The parsed HashTree
      * @throws IOException if parsing fails
      */
     public HashTree loadFromXml(String xml) throws IOException {
-        // SaveService.loadTree requires a File, so we create a temp file
         java.io.File tempFile = java.io.File.createTempFile("jmeter-copilot-", ".jmx");
         try {
             java.nio.file.Files.writeString(tempFile.toPath(), xml, StandardCharsets.UTF_8);
@@ -135,6 +294,16 @@ public class JMeterXmlParser {
         }
     }
 
+    /**
+     * Parses raw JMeter XML content unless the token is cancelled first.
+     * SaveService can't be interrupted, so a parse that has started runs to
+     * the end and callers check the token again afterwards.
+     */
+    HashTree loadFromXml(String xml, CancellationToken token) throws IOException {
+        token.throwIfCancelled();
+        return loadFromXml(xml);
+    }
+
     /**
      * Validates that the given XML is a valid JMeter test plan structure.
      *
@@ -174,10 +343,7 @@ public class JMeterXmlParser {
             return Optional.empty();
         }
 
-        Matcher matcher = JMX_FILE_PATH_PATTERN.matcher(text);
-        while (matcher.find()) {
-            // Group 1 is for backtick-wrapped paths, group 0 is the full match
-            String path = matcher.group(1) != null ? matcher.group(1) : matcher.group(0);
+        for (String path : MarkdownXmlScanner.scan(text).jmxPaths()) {
             java.io.File file = new java.io.File(path);
             if (file.exists() && file.isFile()) {
                 return Optional.of(path);
@@ -193,16 +359,28 @@ public class JMeterXmlParser {
      * @return ParseResult containing the HashTree or error message
      */
     public ParseResult parseXmlFile(String filePath) {
+        return parseXmlFile(filePath, CancellationToken.NONE);
+    }
+
+    /**
+     * Parses a JMX file, stopping early if the token is cancelled.
+     */
+    ParseResult parseXmlFile(String filePath, CancellationToken token) {
         java.io.File file = new java.io.File(filePath);
         if (!file.exists()) {
             return ParseResult.failure("File not found: " + filePath);
         }
 
         try {
-            HashTree tree = SaveService.loadTree(file);
+            token.throwIfCancelled();
             String xml = java.nio.file.Files.readString(file.toPath(), StandardCharsets.UTF_8);
+            HashTree tree = loadFromXml(xml, token);
+            token.throwIfCancelled();
             return ParseResult.success(tree, xml);
         } catch (Exception e) {
+            if (token.isCancelled()) {
+                return ParseResult.failure(CANCELLED_MESSAGE);
+            }
             return ParseResult.failure("Failed to load JMeter file: " + e.getMessage());
         }
     }
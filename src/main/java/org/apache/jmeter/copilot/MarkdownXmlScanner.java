@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Single-pass scanner for Copilot responses.
+ * <p>
+ * One traversal finds every fenced code block with its language tag, the raw
+ * {@code <jmeterTestPlan>} span and every {@code .jmx} path. Unlike the regular
+ * expressions it replaces, it never backtracks, so it runs in linear time
+ * even on very large responses with unbalanced fences.
+ */
+final class MarkdownXmlScanner {
+
+    static final String FENCE = "```";
+    private static final String PLAN_OPEN = "<jmeterTestPlan";
+    private static final String PLAN_CLOSE = "</jmeterTestPlan>";
+    private static final String JMX_EXTENSION = ".jmx";
+
+    /**
+     * A fenced code block. Offsets are into the scanned text; {@code end} is
+     * just past the closing fence.
+     */
+    record CodeBlock(int start, int end, String language, String content) {
+
+        boolean isXml() {
+            return "xml".equalsIgnoreCase(language);
+        }
+    }
+
+    /**
+     * Everything found in one pass over a response.
+     */
+    record ScanResult(String text, List<CodeBlock> codeBlocks, int planStart, int planEnd, List<String> jmxPaths) {
+
+        /**
+         * Returns the text from the first {@code <jmeterTestPlan} to the last
+         * {@code </jmeterTestPlan>}, if both are present.
+         */
+        Optional<String> rawPlan() {
+            return planStart >= 0 && planEnd > planStart
+                ? Optional.of(text.substring(planStart, planEnd))
+                : Optional.empty();
+        }
+    }
+
+    private MarkdownXmlScanner() {
+    }
+
+    static ScanResult scan(String text) {
+        List<CodeBlock> codeBlocks = new ArrayList<>();
+        List<String> jmxPaths = new ArrayList<>();
+        int planStart = -1;
+        int planEnd = -1;
+
+        int length = text.length();
+        int blockStart = -1;     // Start of the open fenced block, if any
+        int blockContent = -1;
+        String blockLanguage = null;
+        int inlineStart = -1;    // Start of the open inline code span, if any
+        int inlinePathIndex = 0;
+
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (c == '`') {
+                if (text.startsWith(FENCE, i)) {
+                    if (blockStart >= 0) {
+                        codeBlocks.add(new CodeBlock(blockStart, i + FENCE.length(), blockLanguage,
+                            text.substring(blockContent, i)));
+                        blockStart = -1;
+                        i += FENCE.length();
+                    } else {
+                        blockStart = i;
+                        inlineStart = -1;
+                        int afterFence = i + FENCE.length();
+                        blockContent = contentStart(text, afterFence);
+                        blockLanguage = blockContent > afterFence ? text.substring(afterFence, blockContent).strip() : "";
+                        i = blockContent;
+                    }
+                    continue;
+                }
+                if (blockStart < 0) {
+                    if (inlineStart < 0) {
+                        inlineStart = i + 1;
+                        inlinePathIndex = jmxPaths.size();
+                    } else {
+                        // A path in backticks takes precedence over the bare paths inside it
+                        String code = text.substring(inlineStart, i);
+                        if (endsWithJmx(code, code.length())) {
+                            jmxPaths.add(inlinePathIndex, code);
+                        }
+                        inlineStart = -1;
+                    }
+                }
+                i++;
+            } else if (c == '<') {
+                if (text.startsWith(PLAN_OPEN, i)) {
+                    if (planStart < 0) {
+                        planStart = i;
+                    }
+                    i += PLAN_OPEN.length();
+                } else if (text.startsWith(PLAN_CLOSE, i)) {
+                    i += PLAN_CLOSE.length();
+                    if (planStart >= 0) {
+                        planEnd = i;
+                    }
+                } else {
+                    i++;
+                }
+            } else if (isPathChar(c) || isDriveStart(text, i)) {
+                int end = scanPath(text, i);
+                // Trailing punctuation ends a sentence rather than the path
+                int pathEnd = end;
+                while (pathEnd > i && (text.charAt(pathEnd - 1) == '.' || text.charAt(pathEnd - 1) == '-')) {
+                    pathEnd--;
+                }
+                if (endsWithJmx(text, pathEnd) && pathEnd - i > JMX_EXTENSION.length()) {
+                    jmxPaths.add(text.substring(i, pathEnd));
+                }
+                i = end;
+            } else {
+                if (c == '\n') {
+                    // Inline code spans don't cross lines
+                    inlineStart = -1;
+                }
+                i++;
+            }
+        }
+
+        return new ScanResult(text, codeBlocks, planStart, planEnd, jmxPaths);
+    }
+
+    /**
+     * Returns where the content of a fenced block starts. A single-word info
+     * string up to the end of the line is the language tag and is skipped, as
+     * is a blank rest of the line; otherwise the content starts right after
+     * the fence.
+     */
+    static int contentStart(CharSequence text, int afterFence) {
+        int length = text.length();
+        boolean word = false;
+        boolean spaceAfterWord = false;
+        int i = afterFence;
+        // Stops at the first character that rules out a tag, so no text is scanned twice
+        while (i < length && text.charAt(i) != '\n') {
+            char c = text.charAt(i);
+            if (c == '`' || c == '<') {
+                return afterFence;
+            }
+            if (Character.isWhitespace(c)) {
+                spaceAfterWord = word;
+            } else if (spaceAfterWord) {
+                return afterFence;
+            } else {
+                word = true;
+            }
+            i++;
+        }
+        return i < length ? i + 1 : i;
+    }
+
+    private static int scanPath(String text, int start) {
+        int i = start;
+        if (isDriveStart(text, i)) {
+            i += 2;
+        }
+        while (i < text.length() && isPathChar(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDriveStart(String text, int i) {
+        return i + 2 < text.length()
+            && isAsciiLetter(text.charAt(i))
+            && text.charAt(i + 1) == ':'
+            && (text.charAt(i + 2) == '/' || text.charAt(i + 2) == '\\')
+            && (i == 0 || !isPathChar(text.charAt(i - 1)));
+    }
+
+    private static boolean isPathChar(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9')
+            || c == '_' || c == '.' || c == '-' || c == '/' || c == '\\';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean endsWithJmx(String text, int end) {
+        return end >= JMX_EXTENSION.length()
+            && text.regionMatches(true, end - JMX_EXTENSION.length(), JMX_EXTENSION, 0, JMX_EXTENSION.length());
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caches the list of available models.
+ * <p>
+ * The list fetched from the API is kept in memory for a configurable time
+ * and written to disk, so the model selector can be filled right away at the
+ * next start and refreshed in the background. The file is read and written
+ * on the background executor.
+ */
+class ModelCatalog {
+
+    private static final Logger LOG = Logger.getLogger(ModelCatalog.class.getName());
+
+    /**
+     * jmeter.properties key for how long the fetched model list is used before it is fetched again.
+     */
+    static final String TTL_PROPERTY = "copilot.models.cache_ttl_seconds";
+    static final long DEFAULT_TTL_SECONDS = 3600;
+
+    /**
+     * Models offered when the list has never been fetched.
+     */
+    static final List<String> DEFAULT_MODELS = List.of("claude-sonnet-4", "gpt-4.1");
+
+    private final Supplier<CompletableFuture<List<String>>> fetcher;
+    private final Path persistedFile;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Executor ioExecutor;
+
+    // Guarded by "this"
+    private List<String> models;
+    private CompletableFuture<List<String>> loading;
+    private boolean fetched;
+    private long fetchedAt;
+    private CompletableFuture<List<String>> refreshing;
+
+    /**
+     * @param fetcher       fetches the model IDs from the API
+     * @param persistedFile file keeping the last fetched list, or null to keep it in memory only
+     * @param ttl           how long a fetched list is used before it is fetched again
+     */
+    ModelCatalog(Supplier<CompletableFuture<List<String>>> fetcher, Path persistedFile, Duration ttl) {
+        this(fetcher, persistedFile, ttl, System::nanoTime);
+    }
+
+    ModelCatalog(Supplier<CompletableFuture<List<String>>> fetcher, Path persistedFile, Duration ttl,
+            LongSupplier nanoClock) {
+        this(fetcher, persistedFile, ttl, nanoClock, CopilotExecutors.background());
+    }
+
+    ModelCatalog(Supplier<CompletableFuture<List<String>>> fetcher, Path persistedFile, Duration ttl,
+            LongSupplier nanoClock, Executor ioExecutor) {
+        this.fetcher = fetcher;
+        this.persistedFile = persistedFile;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.ioExecutor = ioExecutor;
+    }
+
+    /**
+     * Returns the file the model list is kept in between JMeter runs.
+     */
+    static Path defaultFile() {
+        return Path.of(System.getProperty("user.home"), ".jmeter", "copilot", "models.txt");
+    }
+
+    /**
+     * Returns the best list available without fetching: the last fetched
+     * list, the persisted one, or the defaults. Only reading the persisted
+     * list waits, in the background.
+     */
+    synchronized CompletableFuture<List<String>> getCachedModels() {
+        if (models != null) {
+            return CompletableFuture.completedFuture(models);
+        }
+        if (loading == null) {
+            loading = CompletableFuture.supplyAsync(this::readPersisted, ioExecutor)
+                .thenApply(persisted -> {
+                    synchronized (this) {
+                        // A fetch may have completed meanwhile
+                        if (models == null) {
+                            models = persisted;
+                        }
+                        return models;
+                    }
+                });
+        }
+        return loading;
+    }
+
+    /**
+     * Returns the model list, fetching it only if the cached list has expired.
+     * If fetching fails, the cached list is returned.
+     */
+    synchronized CompletableFuture<List<String>> getModels() {
+        if (fetched && nanoClock.getAsLong() - fetchedAt < ttlNanos) {
+            return CompletableFuture.completedFuture(models);
+        }
+        return refresh();
+    }
+
+    /**
+     * Fetches the model list, sharing a fetch that is already in flight.
+     * If fetching fails, the cached list is returned.
+     */
+    synchronized CompletableFuture<List<String>> refresh() {
+        if (refreshing != null) {
+            return refreshing;
+        }
+        CompletableFuture<List<String>> fetch;
+        try {
+            fetch = fetcher.get();
+        } catch (RuntimeException e) {
+            fetch = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<List<String>> refresh = fetch.handle((ids, ex) -> {
+            if (ex != null || ids == null || ids.isEmpty()) {
+                if (ex != null) {
+                    LOG.log(Level.WARNING, "Failed to fetch models from API, using cached list", ex);
+                } else {
+                    LOG.info("API returned no models, using cached list");
+                }
+                synchronized (this) {
+                    refreshing = null;
+                }
+                return getCachedModels();
+            }
+            List<String> fetchedModels = List.copyOf(ids);
+            synchronized (this) {
+                models = fetchedModels;
+                fetched = true;
+                fetchedAt = nanoClock.getAsLong();
+                refreshing = null;
+            }
+            ioExecutor.execute(() -> persist(fetchedModels));
+            return CompletableFuture.completedFuture(fetchedModels);
+        }).thenCompose(Function.identity());
+        // The fetch may have completed already, in which case there is nothing in flight
+        if (!refresh.isDone()) {
+            refreshing = refresh;
+        }
+        return refresh;
+    }
+
+    private List<String> readPersisted() {
+        if (persistedFile != null && Files.isRegularFile(persistedFile)) {
+            try {
+                List<String> persisted = Files.readAllLines(persistedFile, StandardCharsets.UTF_8).stream()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty())
+                    .toList();
+                if (!persisted.isEmpty()) {
+                    return persisted;
+                }
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "Could not read model list " + persistedFile, e);
+            }
+        }
+        return DEFAULT_MODELS;
+    }
+
+    private void persist(List<String> fetchedModels) {
+        if (persistedFile == null) {
+            return;
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(persistedFile.getParent());
+            temp = Files.createTempFile(persistedFile.getParent(), "models", ".tmp");
+            Files.write(temp, fetchedModels, StandardCharsets.UTF_8);
+            Files.move(temp, persistedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not write model list " + persistedFile, e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    LOG.log(Level.FINE, "Could not delete " + temp, e);
+                }
+            }
+        }
+    }
+}
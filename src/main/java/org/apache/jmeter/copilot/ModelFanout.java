@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.jmeter.util.JMeterUtils;
+
+import com.github.copilot.sdk.CopilotSession;
+import com.github.copilot.sdk.json.MessageOptions;
+
+/**
+ * Sends one prompt to several models at once, each in its own session, and
+ * keeps the first response whose test plan parses.
+ * <p>
+ * The remaining requests are aborted as soon as there is a winner, and all
+ * fan-out sessions are closed once the fan-out is over.
+ */
+class ModelFanout {
+
+    private static final Logger LOG = Logger.getLogger(ModelFanout.class.getName());
+
+    /**
+     * jmeter.properties key for the comma-separated models to fan out to.
+     * When unset, the selected model and the next available ones are used.
+     */
+    static final String MODELS_PROPERTY = "copilot.fanout.models";
+    static final int DEFAULT_MODEL_COUNT = 3;
+
+    /**
+     * jmeter.properties key for how long each model may take to answer.
+     * Generating a large plan can take well over the SDK's one-minute default.
+     */
+    static final String TIMEOUT_PROPERTY = "copilot.fanout.timeout_seconds";
+    static final int DEFAULT_TIMEOUT_SECONDS = 600;
+
+    /**
+     * The winning response.
+     *
+     * @param model   the model that produced it
+     * @param content the full response
+     * @param planXml the test plan XML extracted from the response
+     * @param elapsed time from sending the prompt to having a valid plan
+     */
+    record Result(String model, String content, String planXml, Duration elapsed) {
+    }
+
+    private final Function<String, CompletableFuture<CopilotSession>> sessionFactory;
+    private final JMeterXmlParser xmlParser;
+    private final Executor parseExecutor;
+    private final Duration responseTimeout;
+    private final CompletableFuture<Result> winner = new CompletableFuture<>();
+
+    // Guarded by "this"
+    private final List<CopilotSession> sessions = new ArrayList<>();
+    private final List<CopilotSession> running = new ArrayList<>();
+    private final Map<String, String> failures = new LinkedHashMap<>();
+
+    /**
+     * @param sessionFactory creates a session for the given model
+     * @param xmlParser      parser used to validate the responses
+     * @param parseExecutor  executor the responses are parsed on
+     */
+    ModelFanout(Function<String, CompletableFuture<CopilotSession>> sessionFactory, JMeterXmlParser xmlParser,
+            Executor parseExecutor) {
+        this(sessionFactory, xmlParser, parseExecutor,
+            Duration.ofSeconds(JMeterUtils.getPropDefault(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_SECONDS)));
+    }
+
+    /**
+     * @param sessionFactory  creates a session for the given model
+     * @param xmlParser       parser used to validate the responses
+     * @param parseExecutor   executor the responses are parsed on
+     * @param responseTimeout how long each model may take to answer
+     */
+    ModelFanout(Function<String, CompletableFuture<CopilotSession>> sessionFactory, JMeterXmlParser xmlParser,
+            Executor parseExecutor, Duration responseTimeout) {
+        this.sessionFactory = sessionFactory;
+        this.xmlParser = xmlParser;
+        this.parseExecutor = parseExecutor;
+        this.responseTimeout = responseTimeout;
+    }
+
+    /**
+     * Picks the models to fan out to: the configured ones if any, otherwise
+     * the selected model followed by other available models.
+     *
+     * @param configured comma-separated model list, may be null or blank
+     * @param selected   the model selected in the chat panel
+     * @param available  all available models
+     */
+    static List<String> selectModels(String configured, String selected, List<String> available) {
+        List<String> models = new ArrayList<>();
+        if (configured != null && !configured.isBlank()) {
+            for (String model : configured.split(",")) {
+                if (!model.isBlank() && !models.contains(model.trim())) {
+                    models.add(model.trim());
+                }
+            }
+            return models;
+        }
+        models.add(selected);
+        for (String model : available) {
+            if (models.size() >= DEFAULT_MODEL_COUNT) {
+                break;
+            }
+            if (!models.contains(model)) {
+                models.add(model);
+            }
+        }
+        return models;
+    }
+
+    /**
+     * Sends the prompt to all models. Can only be called once.
+     *
+     * @return future completed with the first valid response, or failed if
+     *         no model produced a valid test plan
+     */
+    CompletableFuture<Result> run(String prompt, List<String> models) {
+        long start = System.nanoTime();
+        CompletableFuture<?>[] attempts = models.stream()
+            .map(model -> attempt(model, prompt, start))
+            .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(attempts).thenRun(() -> {
+            synchronized (this) {
+                winner.completeExceptionally(new IllegalStateException(
+                    "No model returned a valid test plan: " + failures));
+            }
+        });
+        winner.whenComplete((result, ex) -> closeSessions());
+        return winner;
+    }
+
+    /**
+     * Aborts all requests still running.
+     */
+    void abort() {
+        winner.cancel(false);
+    }
+
+    private CompletableFuture<Void> attempt(String model, String prompt, long start) {
+        return sessionFactory.apply(model)
+            .thenCompose(session -> {
+                if (!register(session)) {
+                    return CompletableFuture.failedFuture(new IllegalStateException("Fan-out already finished"));
+                }
+                return session.sendAndWait(new MessageOptions().setPrompt(prompt), responseTimeout.toMillis())
+                    .whenComplete((event, ex) -> answered(session));
+            })
+            .thenAcceptAsync(event -> {
+                if (winner.isDone()) {
+                    return;
+                }
+                String content = event != null && event.getData() != null ? event.getData().content() : null;
+                JMeterXmlParser.ParseResult result = content != null
+                    ? xmlParser.parseXml(content)
+                    : JMeterXmlParser.ParseResult.failure("Empty response");
+                if (result.isSuccess()) {
+                    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                    if (winner.complete(new Result(model, content, result.extractedXml(), elapsed))) {
+                        LOG.log(Level.INFO, "Model {0} won the fan-out after {1} ms",
+                            new Object[]{model, elapsed.toMillis()});
+                    }
+                } else {
+                    recordFailure(model, result.errorMessage());
+                }
+            }, parseExecutor)
+            .exceptionally(ex -> {
+                recordFailure(model, ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage());
+                return null;
+            });
+    }
+
+    private synchronized boolean register(CopilotSession session) {
+        if (winner.isDone()) {
+            session.close();
+            return false;
+        }
+        sessions.add(session);
+        running.add(session);
+        return true;
+    }
+
+    private synchronized void answered(CopilotSession session) {
+        running.remove(session);
+    }
+
+    private synchronized void recordFailure(String model, String message) {
+        if (!winner.isDone()) {
+            LOG.log(Level.FINE, "Fan-out to model {0} failed: {1}", new Object[]{model, message});
+            failures.put(model, message);
+        }
+    }
+
+    private synchronized void closeSessions() {
+        for (CopilotSession session : sessions) {
+            try {
+                if (running.contains(session)) {
+                    session.abort();
+                }
+                session.close();
+            } catch (Exception e) {
+                LOG.log(Level.FINE, "Error closing fan-out session", e);
+            }
+        }
+        sessions.clear();
+        running.clear();
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.Set;
+
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.apache.jmeter.testelement.property.PropertyIterator;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+
+/**
+ * Tells the model about the test plan open in JMeter without sending the
+ * whole JMX every turn. The tracker keeps a copy of the last version of the
+ * plan the session has seen; each prompt is prefixed with the elements
+ * added, removed or modified since then, one line per element, so the cost
+ * of a turn grows with the size of the change rather than the plan. The
+ * first prompt of a session lists the whole plan in the same format.
+ * <p>
+ * A plan sent with a prompt only counts as seen once the turn has succeeded;
+ * if sending fails or the turn is aborted, the next prompt describes the
+ * same changes again.
+ */
+final class PlanContextTracker {
+
+    /**
+     * jmeter.properties key enabling plan context in prompts.
+     */
+    static final String ENABLED_PROPERTY = "copilot.plan_diff.enabled";
+
+    static final String FULL_HEADER = "[The test plan currently open in JMeter]";
+    static final String DIFF_HEADER = "[Changes to the test plan in JMeter since my last message]";
+
+    private static final int MAX_VALUE_LENGTH = 200;
+    private static final Set<String> HIDDEN_PROPERTIES = Set.of(
+        TestElement.GUI_CLASS, TestElement.TEST_CLASS, TestElement.NAME);
+
+    // Guarded by "this"
+    private HashTree seen; // Null until the session has seen a plan
+    private HashTree sending; // Sent with the current turn, null if none
+
+    /**
+     * Creates a tracker if plan context is enabled in jmeter.properties,
+     * otherwise returns null.
+     */
+    static PlanContextTracker createIfEnabled() {
+        return JMeterUtils.getPropDefault(ENABLED_PROPERTY, false) ? new PlanContextTracker() : null;
+    }
+
+    /**
+     * Returns the text describing the plan to prepend to the next prompt, or
+     * an empty string if the session has already seen this version. The plan
+     * counts as seen once {@link #turnSucceeded()} is called.
+     *
+     * @param snapshot a copy of the plan made by {@link #snapshot}, which the
+     *                 tracker keeps
+     */
+    synchronized String nextContext(HashTree snapshot) {
+        if (snapshot.isEmpty()) {
+            return "";
+        }
+        boolean full = seen == null;
+        TestPlanDiff diff = TestPlanDiff.compute(full ? new ListedHashTree() : seen, snapshot);
+        sending = snapshot;
+        if (diff.isEmpty()) {
+            return "";
+        }
+        StringBuilder context = new StringBuilder(full ? FULL_HEADER : DIFF_HEADER).append('\n');
+        for (TestPlanDiff.Change change : diff.getChanges()) {
+            switch (change.kind()) {
+                case ADDED -> appendAdded(context, change.path(), change.after(), change.subTree());
+                case REMOVED -> context.append("- ").append(change.path()).append('\n');
+                case MODIFIED -> {
+                    context.append("~ ").append(change.path()).append(':');
+                    for (String name : change.properties()) {
+                        appendProperty(context, change.after().getProperty(name));
+                    }
+                    context.append('\n');
+                }
+            }
+        }
+        return context.append('\n').toString();
+    }
+
+    /**
+     * Remembers the plan as seen by the session, e.g. because the model
+     * generated it.
+     */
+    synchronized void markSeen(HashTree plan) {
+        seen = snapshot(plan);
+        sending = null;
+    }
+
+    /**
+     * Remembers the plan sent with the current turn as seen, now that the
+     * session has answered it.
+     */
+    synchronized void turnSucceeded() {
+        if (sending != null) {
+            seen = sending;
+            sending = null;
+        }
+    }
+
+    /**
+     * Forgets the plan sent with the current turn, which failed or was
+     * aborted, so the next prompt describes its changes again.
+     */
+    synchronized void turnFailed() {
+        sending = null;
+    }
+
+    /**
+     * Forgets the plan, for a new session.
+     */
+    synchronized void reset() {
+        seen = null;
+        sending = null;
+    }
+
+    private static void appendAdded(StringBuilder context, String path, TestElement element, HashTree subTree) {
+        context.append("+ ").append(path).append(" (").append(element.getClass().getSimpleName()).append(')');
+        PropertyIterator iterator = element.propertyIterator();
+        while (iterator.hasNext()) {
+            JMeterProperty property = iterator.next();
+            if (HIDDEN_PROPERTIES.contains(property.getName())
+                    || (TestElement.ENABLED.equals(property.getName()) && property.getBooleanValue())
+                    || property.getStringValue() == null || property.getStringValue().isEmpty()) {
+                continue;
+            }
+            appendProperty(context, property);
+        }
+        context.append('\n');
+        for (Object key : subTree.list()) {
+            TestElement child = (TestElement) key;
+            appendAdded(context, path + '/' + child.getName(), child, subTree.getTree(child));
+        }
+    }
+
+    private static void appendProperty(StringBuilder context, JMeterProperty property) {
+        String value = property.getStringValue();
+        if (value != null && value.length() > MAX_VALUE_LENGTH) {
+            value = value.substring(0, MAX_VALUE_LENGTH) + "…";
+        }
+        context.append(' ').append(property.getName()).append('=').append(value == null ? "" : value.replace('\n', ' '));
+    }
+
+    /**
+     * Copies the tree and its elements, so later edits in the GUI show up as
+     * changes.
+     */
+    static HashTree snapshot(HashTree tree) {
+        HashTree copy = new ListedHashTree();
+        for (Object key : tree.list()) {
+            TestElement element = (TestElement) key;
+            copy.set(element.clone(), snapshot(tree.getTree(element)));
+        }
+        return copy;
+    }
+}
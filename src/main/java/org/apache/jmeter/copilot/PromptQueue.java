@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import org.apache.jorphan.collections.HashTree;
+
+/**
+ * Bounded queue of prompts sent to the session one turn at a time.
+ * <p>
+ * A prompt submitted while a turn is in progress waits until
+ * {@link #turnFinished()} is called, then the prompts are sent in submission
+ * order. Submissions beyond the capacity are rejected.
+ * <p>
+ * Each turn is identified by the ID of its prompt, so a turn that ends in
+ * more than one way, e.g. with an error and then an abort, is only
+ * finished once.
+ */
+class PromptQueue {
+
+    /**
+     * A prompt waiting to be sent.
+     *
+     * @param id     identifier used to cancel the prompt
+     * @param prompt the prompt text
+     * @param plan   copy of the test plan open when the prompt was submitted,
+     *               or null
+     */
+    record Entry(long id, String prompt, HashTree plan) {
+    }
+
+    private record Pending(Entry entry, CompletableFuture<String> sent) {
+    }
+
+    /**
+     * Value of {@link #activeTurn()} when no turn is in progress.
+     */
+    static final long NO_TURN = -1;
+
+    private final int capacity;
+    private final Function<Entry, CompletableFuture<String>> sender;
+    private Runnable changeListener = () -> { };
+
+    // Guarded by "this"
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    private boolean turnInProgress;
+    private long activeTurn = NO_TURN;
+    private long nextId;
+
+    /**
+     * @param capacity maximum number of prompts waiting
+     * @param sender   sends a prompt to the session, returning the message ID
+     */
+    PromptQueue(int capacity, Function<Entry, CompletableFuture<String>> sender) {
+        this.capacity = capacity;
+        this.sender = sender;
+    }
+
+    /**
+     * Sets a listener notified whenever prompts are added, sent or removed.
+     */
+    void setChangeListener(Runnable listener) {
+        this.changeListener = listener != null ? listener : () -> { };
+    }
+
+    /**
+     * Sends the prompt now if no turn is in progress, otherwise queues it.
+     *
+     * @return future completed with the message ID once the prompt has been
+     *         sent; failed with a {@link RejectedExecutionException} if the
+     *         queue is full, or cancelled if the prompt is cancelled before it is sent
+     */
+    CompletableFuture<String> submit(String prompt) {
+        return submit(prompt, null);
+    }
+
+    /**
+     * Sends the prompt now if no turn is in progress, otherwise queues it
+     * along with the test plan it refers to.
+     *
+     * @see #submit(String)
+     */
+    CompletableFuture<String> submit(String prompt, HashTree plan) {
+        Pending submitted;
+        boolean sendNow;
+        synchronized (this) {
+            if (turnInProgress && pending.size() >= capacity) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Prompt queue is full (" + capacity + " prompts waiting)"));
+            }
+            submitted = new Pending(new Entry(nextId++, prompt, plan), new CompletableFuture<>());
+            sendNow = !turnInProgress;
+            if (sendNow) {
+                turnInProgress = true;
+                activeTurn = submitted.entry().id();
+            } else {
+                pending.addLast(submitted);
+            }
+        }
+        if (sendNow) {
+            send(submitted);
+        } else {
+            changeListener.run();
+        }
+        return submitted.sent();
+    }
+
+    /**
+     * Marks the current turn as finished and sends the next queued prompt.
+     */
+    void turnFinished() {
+        turnFinished(activeTurn());
+    }
+
+    /**
+     * Marks the given turn as finished and sends the next queued prompt,
+     * unless that turn has already finished.
+     *
+     * @param turn the ID of the turn, as returned by {@link #activeTurn()}
+     * @return true if the turn was in progress
+     */
+    boolean turnFinished(long turn) {
+        Pending next;
+        synchronized (this) {
+            if (!turnInProgress || activeTurn != turn) {
+                return false;
+            }
+            next = pending.pollFirst();
+            turnInProgress = next != null;
+            activeTurn = next != null ? next.entry().id() : NO_TURN;
+        }
+        if (next != null) {
+            changeListener.run();
+            send(next);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the ID of the turn in progress, or {@link #NO_TURN}.
+     */
+    synchronized long activeTurn() {
+        return activeTurn;
+    }
+
+    /**
+     * Removes a queued prompt before it is sent.
+     *
+     * @return true if the prompt was still waiting
+     */
+    boolean cancel(long id) {
+        Pending removed = null;
+        synchronized (this) {
+            for (Iterator<Pending> it = pending.iterator(); it.hasNext();) {
+                Pending candidate = it.next();
+                if (candidate.entry().id() == id) {
+                    it.remove();
+                    removed = candidate;
+                    break;
+                }
+            }
+        }
+        if (removed == null) {
+            return false;
+        }
+        removed.sent().cancel(false);
+        changeListener.run();
+        return true;
+    }
+
+    /**
+     * Cancels all queued prompts and forgets the turn in progress.
+     */
+    void clear() {
+        List<Pending> removed;
+        synchronized (this) {
+            removed = new ArrayList<>(pending);
+            pending.clear();
+            turnInProgress = false;
+            activeTurn = NO_TURN;
+        }
+        removed.forEach(p -> p.sent().cancel(false));
+        if (!removed.isEmpty()) {
+            changeListener.run();
+        }
+    }
+
+    /**
+     * Returns the prompts waiting to be sent, oldest first.
+     */
+    synchronized List<Entry> entries() {
+        return pending.stream().map(Pending::entry).toList();
+    }
+
+    /**
+     * Returns the number of prompts waiting to be sent.
+     */
+    synchronized int size() {
+        return pending.size();
+    }
+
+    private void send(Pending next) {
+        CompletableFuture<String> sent;
+        try {
+            sent = sender.apply(next.entry());
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((messageId, ex) -> {
+            if (ex != null) {
+                next.sent().completeExceptionally(ex);
+                // No turn was started, so no idle notification will follow
+                turnFinished(next.entry().id());
+            } else {
+                next.sent().complete(messageId);
+            }
+        });
+    }
+}
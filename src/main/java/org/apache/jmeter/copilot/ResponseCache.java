@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.apache.jmeter.util.JMeterUtils;
+
+/**
+ * Exact-match cache of Copilot responses, so a prompt that was answered
+ * before is answered again without a round-trip.
+ * <p>
+ * Entries are keyed on the prompt with whitespace normalized, the model and
+ * the system prompt. Recently used responses are kept in memory; all
+ * responses are also written to a directory under the user's JMeter
+ * directory, so they survive restarts. Both tiers evict the least recently
+ * used entries beyond their limit.
+ * <p>
+ * Disk reads and writes run on the background executor. The files on disk
+ * are tracked in an in-memory index, built from their modification times
+ * the first time the disk is used, so eviction doesn't list the directory.
+ */
+class ResponseCache {
+
+    private static final Logger LOG = Logger.getLogger(ResponseCache.class.getName());
+
+    /**
+     * jmeter.properties key enabling the response cache.
+     */
+    static final String ENABLED_PROPERTY = "copilot.response_cache.enabled";
+
+    /**
+     * jmeter.properties key for the number of responses kept in memory.
+     */
+    static final String MAX_ENTRIES_PROPERTY = "copilot.response_cache.max_entries";
+    static final int DEFAULT_MAX_ENTRIES = 100;
+
+    /**
+     * jmeter.properties key for the number of responses kept on disk.
+     */
+    static final String MAX_DISK_ENTRIES_PROPERTY = "copilot.response_cache.max_disk_entries";
+    static final int DEFAULT_MAX_DISK_ENTRIES = 1000;
+
+    private static final String FILE_SUFFIX = ".md";
+
+    private final Path directory;
+    private final int maxDiskEntries;
+    private final Executor executor;
+    private final Map<String, String> memory; // Guarded by itself
+    // Keys of the responses on disk, least recently used first; guarded by itself
+    private final Map<String, Boolean> diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean diskIndexLoaded; // Guarded by diskIndex
+
+    /**
+     * @param directory      directory for the on-disk tier
+     * @param maxEntries     maximum number of responses kept in memory
+     * @param maxDiskEntries maximum number of responses kept on disk
+     */
+    ResponseCache(Path directory, int maxEntries, int maxDiskEntries) {
+        this(directory, maxEntries, maxDiskEntries, CopilotExecutors.background());
+    }
+
+    /**
+     * @param executor executor for disk reads and writes
+     */
+    ResponseCache(Path directory, int maxEntries, int maxDiskEntries, Executor executor) {
+        this.directory = directory;
+        this.maxDiskEntries = maxDiskEntries;
+        this.executor = executor;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache configured in jmeter.properties, stored under
+     * {@code ~/.jmeter/copilot/response-cache}, or null if it is disabled.
+     */
+    static ResponseCache createIfEnabled() {
+        if (!JMeterUtils.getPropDefault(ENABLED_PROPERTY, false)) {
+            return null;
+        }
+        Path directory = Path.of(System.getProperty("user.home"), ".jmeter", "copilot", "response-cache");
+        return new ResponseCache(directory,
+            JMeterUtils.getPropDefault(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES),
+            JMeterUtils.getPropDefault(MAX_DISK_ENTRIES_PROPERTY, DEFAULT_MAX_DISK_ENTRIES));
+    }
+
+    /**
+     * Returns the cache key for a prompt. Leading, trailing and repeated
+     * whitespace in the prompt is ignored.
+     */
+    static String key(String prompt, String model, String systemPrompt) {
+        String normalized = prompt.strip().replaceAll("\\s+", " ");
+        return JMeterXmlParser.sha256(normalized + '\0' + model + '\0' + systemPrompt);
+    }
+
+    /**
+     * Returns the cached response for the key. Responses in memory are
+     * returned right away; others are looked up on disk in the background.
+     */
+    CompletableFuture<Optional<String>> get(String key) {
+        synchronized (memory) {
+            String response = memory.get(key);
+            if (response != null) {
+                return CompletableFuture.completedFuture(Optional.of(response));
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> readFromDisk(key), executor);
+    }
+
+    /**
+     * Stores a response in memory, and on disk in the background.
+     */
+    void put(String key, String response) {
+        synchronized (memory) {
+            memory.put(key, response);
+        }
+        executor.execute(() -> writeToDisk(key, response));
+    }
+
+    private Optional<String> readFromDisk(String key) {
+        synchronized (diskIndex) {
+            loadDiskIndex();
+            // Also marks the entry as recently used
+            if (diskIndex.get(key) == null) {
+                return Optional.empty();
+            }
+            Path file = directory.resolve(key + FILE_SUFFIX);
+            try {
+                String response = Files.readString(file, StandardCharsets.UTF_8);
+                // Keeps the order across restarts, when the index is rebuilt
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                synchronized (memory) {
+                    memory.put(key, response);
+                }
+                return Optional.of(response);
+            } catch (IOException e) {
+                diskIndex.remove(key);
+                if (!(e instanceof NoSuchFileException)) {
+                    LOG.log(Level.FINE, "Could not read cached response " + file, e);
+                }
+                return Optional.empty();
+            }
+        }
+    }
+
+    private void writeToDisk(String key, String response) {
+        synchronized (diskIndex) {
+            loadDiskIndex();
+            Path temp = null;
+            try {
+                Files.createDirectories(directory);
+                temp = Files.createTempFile(directory, key, ".tmp");
+                Files.writeString(temp, response, StandardCharsets.UTF_8);
+                Files.move(temp, directory.resolve(key + FILE_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                temp = null;
+                diskIndex.put(key, Boolean.TRUE);
+                evictFromDisk();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not write response to cache directory " + directory, e);
+            } finally {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /**
+     * Builds the index from the files on disk, oldest first, once.
+     */
+    private void loadDiskIndex() {
+        if (diskIndexLoaded) {
+            return;
+        }
+        diskIndexLoaded = true;
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(directory)) {
+            files = entries.filter(p -> p.getFileName().toString().endsWith(FILE_SUFFIX))
+                .sorted(Comparator.comparing(ResponseCache::lastModified))
+                .toList();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not list cache directory " + directory, e);
+            return;
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            diskIndex.put(name.substring(0, name.length() - FILE_SUFFIX.length()), Boolean.TRUE);
+        }
+    }
+
+    private void evictFromDisk() throws IOException {
+        Iterator<String> eldest = diskIndex.keySet().iterator();
+        while (diskIndex.size() > maxDiskEntries && eldest.hasNext()) {
+            String key = eldest.next();
+            eldest.remove();
+            Files.deleteIfExists(directory.resolve(key + FILE_SUFFIX));
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not delete " + file, e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
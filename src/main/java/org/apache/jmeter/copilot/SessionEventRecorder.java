@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.jmeter.util.JMeterUtils;
+
+import com.github.copilot.sdk.generated.AssistantMessageDeltaEvent;
+import com.github.copilot.sdk.generated.AssistantMessageEvent;
+import com.github.copilot.sdk.generated.SessionErrorEvent;
+import com.github.copilot.sdk.generated.SessionEvent;
+import com.github.copilot.sdk.generated.SessionIdleEvent;
+
+/**
+ * Records the session events of real conversations, with their timing, so
+ * {@link SessionEventReplayer} can play them back offline.
+ * <p>
+ * The file has one line per event: the milliseconds since recording started,
+ * the kind of event and its text, separated by tabs. Prompt lines mark where
+ * a turn starts, so replays keep the time to the first chunk. Events that
+ * don't affect the chat are not recorded.
+ */
+class SessionEventRecorder implements Consumer<SessionEvent>, Closeable {
+
+    private static final Logger LOG = Logger.getLogger(SessionEventRecorder.class.getName());
+
+    /**
+     * jmeter.properties key for the file session events are recorded to.
+     */
+    static final String FILE_PROPERTY = "copilot.events.record_file";
+
+    static final String PROMPT = "prompt";
+    static final String DELTA = "delta";
+    static final String MESSAGE = "message";
+    static final String IDLE = "idle";
+    static final String ERROR = "error";
+
+    private final BufferedWriter writer; // Guarded by "this"
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Creates a recorder writing to the given file, replacing its content.
+     */
+    SessionEventRecorder(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a recorder writing to the file configured in jmeter.properties,
+     * or null if recording is not configured or the file can't be written.
+     */
+    static SessionEventRecorder createIfConfigured() {
+        String file = JMeterUtils.getPropDefault(FILE_PROPERTY, "");
+        if (file.isBlank()) {
+            return null;
+        }
+        try {
+            LOG.info("Recording Copilot session events to " + file);
+            return new SessionEventRecorder(Path.of(file.trim()));
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Could not record session events to " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Marks the start of a turn.
+     */
+    void promptSent(String prompt) {
+        write(PROMPT, prompt);
+    }
+
+    @Override
+    public void accept(SessionEvent event) {
+        if (event instanceof AssistantMessageDeltaEvent deltaEvent) {
+            write(DELTA, deltaEvent.getData().deltaContent());
+        } else if (event instanceof AssistantMessageEvent messageEvent) {
+            write(MESSAGE, messageEvent.getData().content());
+        } else if (event instanceof SessionIdleEvent idleEvent) {
+            boolean aborted = idleEvent.getData() != null && Boolean.TRUE.equals(idleEvent.getData().aborted());
+            write(IDLE, aborted ? "aborted" : "");
+        } else if (event instanceof SessionErrorEvent errorEvent) {
+            write(ERROR, errorEvent.getData() != null ? errorEvent.getData().message() : null);
+        }
+    }
+
+    private synchronized void write(String kind, String text) {
+        long offsetMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        try {
+            writer.write(offsetMillis + "\t" + kind + "\t" + escape(text));
+            writer.newLine();
+            if (!DELTA.equals(kind)) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not record session event", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Escapes backslashes, tabs and line breaks, so each event stays on one line.
+     */
+    static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Reverses {@link #escape(String)}.
+     */
+    static String unescape(String text) {
+        StringBuilder unescaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                switch (next) {
+                    case 't' -> unescaped.append('\t');
+                    case 'n' -> unescaped.append('\n');
+                    case 'r' -> unescaped.append('\r');
+                    default -> unescaped.append(next);
+                }
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+}
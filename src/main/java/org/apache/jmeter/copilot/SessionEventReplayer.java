@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import com.github.copilot.sdk.generated.AssistantMessageDeltaEvent;
+import com.github.copilot.sdk.generated.AssistantMessageEvent;
+import com.github.copilot.sdk.generated.SessionErrorEvent;
+import com.github.copilot.sdk.generated.SessionEvent;
+import com.github.copilot.sdk.generated.SessionIdleEvent;
+
+/**
+ * Plays back session events recorded by {@link SessionEventRecorder}, turn by
+ * turn, at the recorded speed or faster. Turns are played one after the
+ * other on the background executor, so events are delivered in order, as the
+ * SDK delivers them.
+ */
+class SessionEventReplayer implements Closeable {
+
+    /**
+     * A recorded event and the milliseconds from the start of its turn.
+     */
+    record Entry(long delayMillis, SessionEvent event) {
+    }
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final List<List<Entry>> turns;
+    private final Executor executor;
+    private final Set<CompletableFuture<Void>> playing = ConcurrentHashMap.newKeySet();
+    private CompletableFuture<Void> lastPlayback = CompletableFuture.completedFuture(null); // Guarded by "this"
+
+    /**
+     * @param turns the events of each turn
+     */
+    SessionEventReplayer(List<List<Entry>> turns) {
+        this(turns, CopilotExecutors.background());
+    }
+
+    /**
+     * @param executor executor the turns are played on
+     */
+    SessionEventReplayer(List<List<Entry>> turns, Executor executor) {
+        this.turns = List.copyOf(turns);
+        this.executor = executor;
+    }
+
+    /**
+     * Loads a recording. Each prompt line starts a new turn; events recorded
+     * before the first prompt form a turn of their own.
+     */
+    static SessionEventReplayer load(Path file) throws IOException {
+        List<List<Entry>> turns = new ArrayList<>();
+        List<Entry> turn = new ArrayList<>();
+        long turnStart = -1;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t", 3);
+            if (fields.length < 2) {
+                continue;
+            }
+            long offset = Long.parseLong(fields[0]);
+            String text = fields.length > 2 ? SessionEventRecorder.unescape(fields[2]) : "";
+            if (SessionEventRecorder.PROMPT.equals(fields[1])) {
+                if (!turn.isEmpty()) {
+                    turns.add(turn);
+                    turn = new ArrayList<>();
+                }
+                turnStart = offset;
+                continue;
+            }
+            if (turnStart < 0) {
+                turnStart = offset;
+            }
+            turn.add(new Entry(offset - turnStart, toEvent(fields[1], text)));
+        }
+        if (!turn.isEmpty()) {
+            turns.add(turn);
+        }
+        return new SessionEventReplayer(turns);
+    }
+
+    private static SessionEvent toEvent(String kind, String text) throws IOException {
+        switch (kind) {
+            case SessionEventRecorder.DELTA -> {
+                AssistantMessageDeltaEvent event = new AssistantMessageDeltaEvent();
+                event.setData(new AssistantMessageDeltaEvent.AssistantMessageDeltaEventData("replay", text, null));
+                return event;
+            }
+            case SessionEventRecorder.MESSAGE -> {
+                AssistantMessageEvent event = new AssistantMessageEvent();
+                event.setData(new AssistantMessageEvent.AssistantMessageEventData(
+                    "replay", text, null, null, null, null, null, null, null, null, null));
+                return event;
+            }
+            case SessionEventRecorder.IDLE -> {
+                SessionIdleEvent event = new SessionIdleEvent();
+                event.setData(new SessionIdleEvent.SessionIdleEventData(!text.isEmpty()));
+                return event;
+            }
+            case SessionEventRecorder.ERROR -> {
+                SessionErrorEvent event = new SessionErrorEvent();
+                event.setData(new SessionErrorEvent.SessionErrorEventData("replay", text, null, null, null, null));
+                return event;
+            }
+            default -> throw new IOException("Unknown event kind: " + kind);
+        }
+    }
+
+    /**
+     * Returns the number of recorded turns.
+     */
+    int turnCount() {
+        return turns.size();
+    }
+
+    /**
+     * Returns the events of a turn.
+     */
+    List<Entry> turn(int index) {
+        return turns.get(index);
+    }
+
+    /**
+     * Plays back the events of a turn.
+     *
+     * @param index   the turn to play back
+     * @param handler receives the events
+     * @param speed   how many times faster than recorded to play back;
+     *                {@link Double#POSITIVE_INFINITY} for no delays
+     * @return completes once all events have been delivered; cancelling it
+     *         stops the playback
+     */
+    CompletableFuture<Void> replay(int index, Consumer<SessionEvent> handler, double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Speed must be positive: " + speed);
+        }
+        List<Entry> entries = turns.get(index);
+        CompletableFuture<Void> playback = new CompletableFuture<>();
+        playing.add(playback);
+        playback.whenComplete((v, ex) -> playing.remove(playback));
+        synchronized (this) {
+            // Starts once the previous turn has been played back
+            CompletableFuture<Void> previous = lastPlayback;
+            lastPlayback = playback;
+            previous.handle((v, ex) -> null)
+                .thenRunAsync(() -> play(entries, handler, speed, playback), executor);
+        }
+        return playback;
+    }
+
+    private static void play(List<Entry> entries, Consumer<SessionEvent> handler, double speed,
+            CompletableFuture<Void> playback) {
+        long start = System.nanoTime();
+        try {
+            for (Entry entry : entries) {
+                // Due times are relative to the start, so delivery time doesn't add up
+                long due = start + (long) (TimeUnit.MILLISECONDS.toNanos(entry.delayMillis()) / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0 && !playback.isDone()) {
+                    // In slices, so a cancelled playback frees the thread quickly
+                    LockSupport.parkNanos(Math.min(wait, MAX_PARK_NANOS));
+                }
+                if (playback.isDone()) {
+                    return;
+                }
+                handler.accept(entry.event());
+            }
+            playback.complete(null);
+        } catch (RuntimeException e) {
+            playback.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops the playbacks in progress and those waiting for their turn.
+     */
+    @Override
+    public void close() {
+        for (CompletableFuture<Void> playback : playing) {
+            playback.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Parses generated test plans in the background as soon as they are available,
+ * so loading them later only has to insert the already parsed tree.
+ * <p>
+ * Only the most recent plan is kept. Submitting a different plan, calling
+ * {@link #cancel()} or cancelling the token the plan was submitted with
+ * discards the previous one; a parse that has not started yet is skipped and
+ * one that is running stops early.
+ */
+class SpeculativePlanParser {
+
+    private final JMeterXmlParser xmlParser;
+    private final Executor executor;
+
+    // Guarded by "this"
+    private String pendingXml;
+    private CompletableFuture<JMeterXmlParser.ParseResult> pending;
+    private CancellationToken pendingToken;
+
+    SpeculativePlanParser(JMeterXmlParser xmlParser) {
+        this(xmlParser, CopilotExecutors.background());
+    }
+
+    SpeculativePlanParser(JMeterXmlParser xmlParser, Executor executor) {
+        this.xmlParser = xmlParser;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts parsing the given extracted XML, unless it is already being parsed.
+     */
+    synchronized void submit(String xml) {
+        submit(xml, CancellationToken.NONE);
+    }
+
+    /**
+     * Starts parsing the given extracted XML, unless it is already being
+     * parsed. The parse is abandoned when the token is cancelled.
+     */
+    synchronized void submit(String xml, CancellationToken token) {
+        if (xml.equals(pendingXml) && !pendingToken.isCancelled()) {
+            return;
+        }
+        cancel();
+        CancellationToken parseToken = token.child();
+        CompletableFuture<JMeterXmlParser.ParseResult> parse = CompletableFuture.supplyAsync(
+            () -> xmlParser.parseExtractedXml(xml, parseToken), executor);
+        parseToken.onCancel(() -> parse.cancel(false));
+        pendingXml = xml;
+        pending = parse;
+        pendingToken = parseToken;
+    }
+
+    /**
+     * Takes the parse of the given extracted XML, if one was submitted.
+     * The result is handed out once, since the parsed tree is inserted
+     * into the test plan as is.
+     */
+    synchronized Optional<CompletableFuture<JMeterXmlParser.ParseResult>> take(String xml) {
+        if (pending == null || !xml.equals(pendingXml) || pendingToken.isCancelled()) {
+            return Optional.empty();
+        }
+        CompletableFuture<JMeterXmlParser.ParseResult> result = pending;
+        pending = null;
+        pendingXml = null;
+        pendingToken = null;
+        return Optional.of(result);
+    }
+
+    /**
+     * Discards the current parse.
+     */
+    synchronized void cancel() {
+        if (pendingToken != null) {
+            pendingToken.cancel();
+        }
+        pending = null;
+        pendingXml = null;
+        pendingToken = null;
+    }
+}
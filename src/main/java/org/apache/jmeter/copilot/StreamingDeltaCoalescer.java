@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.jmeter.util.JMeterUtils;
+
+/**
+ * Coalesces streaming deltas so the UI is updated at most once per frame.
+ * Deltas are collected in a lock-free queue from the SDK event thread and
+ * delivered, concatenated, to the target on the flush executor (the EDT by
+ * default). This keeps repaints bound to the display rate rather than to the
+ * model's token rate.
+ */
+class StreamingDeltaCoalescer {
+
+    /**
+     * jmeter.properties key for the maximum number of UI updates per second.
+     */
+    static final String MAX_FPS_PROPERTY = "copilot.streaming.max_fps";
+    static final int DEFAULT_MAX_FPS = 60;
+
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Consumer<String> target;
+    private final Executor flushExecutor;
+    private final long frameIntervalNanos;
+    private volatile long lastFlushNanos;
+
+    /**
+     * Creates a coalescer that delivers to the target on the EDT, using the
+     * frame rate configured in jmeter.properties.
+     */
+    StreamingDeltaCoalescer(Consumer<String> target) {
+        this(target, SwingUtilities::invokeLater,
+            JMeterUtils.getPropDefault(MAX_FPS_PROPERTY, DEFAULT_MAX_FPS));
+    }
+
+    StreamingDeltaCoalescer(Consumer<String> target, Executor flushExecutor, int maxFps) {
+        this.target = target;
+        this.flushExecutor = flushExecutor;
+        this.frameIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, maxFps);
+        this.lastFlushNanos = System.nanoTime() - frameIntervalNanos;
+    }
+
+    /**
+     * Queues a delta for delivery. Safe to call from any thread.
+     */
+    @SuppressWarnings("FutureReturnValueIgnored")
+    void offer(String delta) {
+        pending.add(delta);
+        if (flushScheduled.compareAndSet(false, true)) {
+            long delay = lastFlushNanos + frameIntervalNanos - System.nanoTime();
+            if (delay <= 0) {
+                flushExecutor.execute(this::flush);
+            } else {
+                CopilotExecutors.scheduler().schedule(
+                    () -> flushExecutor.execute(this::flush), delay, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Discards any deltas that have not been delivered yet.
+     */
+    void clear() {
+        pending.clear();
+    }
+
+    /**
+     * Returns the interval between two flushes, in nanoseconds.
+     */
+    long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+
+    private void flush() {
+        lastFlushNanos = System.nanoTime();
+        // Reset before draining so deltas arriving meanwhile schedule the next frame
+        flushScheduled.set(false);
+
+        StringBuilder batch = new StringBuilder();
+        String delta;
+        while ((delta = pending.poll()) != null) {
+            batch.append(delta);
+        }
+        if (batch.length() > 0) {
+            target.accept(batch.toString());
+        }
+    }
+}
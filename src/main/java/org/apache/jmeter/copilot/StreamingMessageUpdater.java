@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.JEditorPane;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.html.HTML;
+import javax.swing.text.html.HTMLDocument;
+
+/**
+ * Keeps the in-flight assistant message up to date inside an already rendered
+ * transcript. Instead of re-rendering the whole conversation for every chunk,
+ * only the streaming bubble is inserted into, or replaced within, the
+ * pane's {@link HTMLDocument}, so the cost of an update does not depend on
+ * the length of the conversation.
+ * <p>
+ * Must be used on the Event Dispatch Thread.
+ */
+class StreamingMessageUpdater {
+
+    private static final Logger LOG = Logger.getLogger(StreamingMessageUpdater.class.getName());
+
+    private final JEditorPane pane;
+    private final ChatMessageRenderer renderer;
+
+    // Location of the streaming element, so updates don't have to search the document
+    private Element parent;
+    private int index = -1;
+
+    StreamingMessageUpdater(JEditorPane pane, ChatMessageRenderer renderer) {
+        this.pane = pane;
+        this.renderer = renderer;
+    }
+
+    /**
+     * Shows the given partial content as the streaming assistant message.
+     *
+     * @return true if the document was updated in place, false if the caller
+     *         should fall back to a full refresh
+     */
+    boolean update(String partialContent) {
+        if (!(pane.getDocument() instanceof HTMLDocument doc)) {
+            return false;
+        }
+
+        String fragment = renderer.renderStreamingFragment(partialContent);
+        try {
+            Element existing = findStreamingElement(doc);
+            if (existing != null) {
+                doc.setOuterHTML(existing, fragment);
+            } else {
+                Element body = findBody(doc);
+                if (body == null) {
+                    return false;
+                }
+                doc.insertBeforeEnd(body, fragment);
+                parent = body;
+            }
+            index = locateStreamingIndex(parent);
+            return index >= 0;
+        } catch (BadLocationException | IOException e) {
+            LOG.log(Level.FINE, "Could not update streaming message in place", e);
+            reset();
+            return false;
+        }
+    }
+
+    /**
+     * Forgets the streaming element. Must be called whenever the pane content
+     * is replaced, e.g. after a full refresh of the transcript.
+     */
+    void reset() {
+        parent = null;
+        index = -1;
+    }
+
+    private Element findStreamingElement(HTMLDocument doc) {
+        if (parent != null && index >= 0 && index < parent.getElementCount()) {
+            Element candidate = parent.getElement(index);
+            if (isStreamingElement(candidate)) {
+                return candidate;
+            }
+        }
+        // Slow path: the cached location is stale, search the document once
+        Element found = doc.getElement(ChatMessageRenderer.STREAMING_ELEMENT_ID);
+        if (found != null) {
+            parent = found.getParentElement();
+        }
+        return found;
+    }
+
+    private static int locateStreamingIndex(Element parent) {
+        if (parent == null) {
+            return -1;
+        }
+        // The streaming element is always appended, so search from the end
+        for (int i = parent.getElementCount() - 1; i >= 0; i--) {
+            if (isStreamingElement(parent.getElement(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isStreamingElement(Element element) {
+        AttributeSet attributes = element.getAttributes();
+        return ChatMessageRenderer.STREAMING_ELEMENT_ID.equals(attributes.getAttribute(HTML.Attribute.ID));
+    }
+
+    private static Element findBody(HTMLDocument doc) {
+        Element root = doc.getDefaultRootElement();
+        for (int i = 0; i < root.getElementCount(); i++) {
+            Element child = root.getElement(i);
+            if (child.getAttributes().getAttribute(StyleConstants.NameAttribute) == HTML.Tag.BODY) {
+                return child;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.Optional;
+
+/**
+ * Extracts the JMeter test plan from a response while it is being streamed.
+ * <p>
+ * Deltas are appended as they arrive; markdown fence state and
+ * {@code <jmeterTestPlan>} boundaries are tracked incrementally, so each delta
+ * is scanned only once. The plan is reported complete as soon as its closing
+ * tag streams in, without waiting for the rest of the response.
+ * <p>
+ * The result is only a preview: it stops at the first closing tag and takes
+ * whichever plan starts first, while
+ * {@link JMeterXmlParser#extractXmlFromText(String)} prefers fenced plans and
+ * returns the whole code block. Callers compare it with the final extraction
+ * once the response is complete.
+ * <p>
+ * Deltas arrive on the SDK event thread while resets come from the caller,
+ * so all methods are synchronized.
+ */
+class StreamingXmlExtractor {
+
+    private static final String FENCE = MarkdownXmlScanner.FENCE;
+    private static final String PLAN_OPEN = "<jmeterTestPlan";
+    private static final String PLAN_CLOSE = "</jmeterTestPlan>";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+
+    // Markers may be split across deltas, so searches back up by this much
+    private static final int SEARCH_OVERLAP = PLAN_CLOSE.length() - 1;
+
+    private enum State {
+        OUTSIDE,
+        IN_FENCE,
+        IN_RAW_PLAN,
+        COMPLETE
+    }
+
+    private final StringBuilder text = new StringBuilder();
+    private State state = State.OUTSIDE;
+    private int searchFrom;
+    private int contentStart;
+    private String planXml;
+
+    /**
+     * Appends a streamed delta.
+     *
+     * @return true if this delta completed the test plan
+     */
+    synchronized boolean append(String delta) {
+        if (state == State.COMPLETE || delta == null || delta.isEmpty()) {
+            return false;
+        }
+        text.append(delta);
+        scan();
+        return state == State.COMPLETE;
+    }
+
+    /**
+     * Returns the test plan XML once its closing tag has been received.
+     */
+    synchronized Optional<String> getPlanXml() {
+        return Optional.ofNullable(planXml);
+    }
+
+    /**
+     * Returns true if the test plan has been received completely.
+     */
+    synchronized boolean isPlanComplete() {
+        return state == State.COMPLETE;
+    }
+
+    /**
+     * Forgets the current response, ready for the next one.
+     */
+    synchronized void reset() {
+        text.setLength(0);
+        state = State.OUTSIDE;
+        searchFrom = 0;
+        contentStart = 0;
+        planXml = null;
+    }
+
+    private void scan() {
+        while (true) {
+            switch (state) {
+                case OUTSIDE -> {
+                    int fence = text.indexOf(FENCE, searchFrom);
+                    int open = text.indexOf(PLAN_OPEN, searchFrom);
+                    if (fence >= 0 && (open < 0 || fence < open)) {
+                        state = State.IN_FENCE;
+                        contentStart = fence + FENCE.length();
+                        searchFrom = contentStart;
+                    } else if (open >= 0) {
+                        state = State.IN_RAW_PLAN;
+                        contentStart = open;
+                        searchFrom = open + PLAN_OPEN.length();
+                    } else {
+                        holdBack();
+                        return;
+                    }
+                }
+                case IN_FENCE -> {
+                    int fence = text.indexOf(FENCE, searchFrom);
+                    int close = text.indexOf(PLAN_CLOSE, searchFrom);
+                    if (close >= 0 && (fence < 0 || close < fence)) {
+                        int end = close + PLAN_CLOSE.length();
+                        int open = text.indexOf(PLAN_OPEN, contentStart);
+                        if (open >= 0 && open < close) {
+                            complete(fencedContent(end));
+                            return;
+                        }
+                        searchFrom = end;
+                    } else if (fence >= 0) {
+                        // The block closed without a complete plan
+                        state = State.OUTSIDE;
+                        searchFrom = fence + FENCE.length();
+                    } else {
+                        holdBack();
+                        return;
+                    }
+                }
+                case IN_RAW_PLAN -> {
+                    int close = text.indexOf(PLAN_CLOSE, searchFrom);
+                    if (close < 0) {
+                        holdBack();
+                        return;
+                    }
+                    complete(XML_DECLARATION + text.substring(contentStart, close + PLAN_CLOSE.length()));
+                    return;
+                }
+                default -> {
+                    return;
+                }
+            }
+        }
+    }
+
+    private String fencedContent(int end) {
+        // Skip the language tag the same way MarkdownXmlScanner does
+        return text.substring(MarkdownXmlScanner.contentStart(text, contentStart), end).trim();
+    }
+
+    private void complete(String xml) {
+        planXml = xml;
+        state = State.COMPLETE;
+    }
+
+    private void holdBack() {
+        searchFrom = Math.max(searchFrom, text.length() - SEARCH_OVERLAP);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.TestPlan;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.apache.jmeter.testelement.property.NullProperty;
+import org.apache.jmeter.testelement.property.PropertyIterator;
+import org.apache.jorphan.collections.HashTree;
+
+/**
+ * Structural difference between two versions of a test plan tree.
+ * <p>
+ * Siblings are matched by element class and name, in order, so renaming an
+ * element shows up as a removal and an addition. The test plan itself is
+ * matched by class only. A matched element is modified if any property set
+ * in the newer version has a different value in the older one; properties
+ * the newer version doesn't set are ignored, since JMeter's GUI adds
+ * defaults to the elements it edits.
+ */
+final class TestPlanDiff {
+
+    private static final String PATH_SEPARATOR = "/";
+
+    /**
+     * Kind of change.
+     */
+    enum Kind {
+        ADDED,
+        REMOVED,
+        MODIFIED
+    }
+
+    /**
+     * One changed element.
+     *
+     * @param kind       the kind of change
+     * @param path       names of the element and its ancestors, separated by slashes
+     * @param parent     parent of an added element in the older tree, null otherwise
+     * @param index      position of an added element among its siblings in the newer tree
+     * @param previous   element an added one follows: the older tree's match of its preceding
+     *                   sibling, or that sibling itself if it is added too; null if it comes first
+     * @param before     the element in the older tree, null if added
+     * @param after      the element in the newer tree, null if removed
+     * @param subTree    an added element's children in the newer tree, null otherwise
+     * @param properties names of the changed properties of a modified element
+     */
+    record Change(Kind kind, String path, TestElement parent, int index, TestElement previous,
+            TestElement before, TestElement after, HashTree subTree, List<String> properties) {
+    }
+
+    private final List<Change> changes;
+
+    private TestPlanDiff(List<Change> changes) {
+        this.changes = List.copyOf(changes);
+    }
+
+    /**
+     * Computes the changes that turn the older tree into the newer one.
+     */
+    static TestPlanDiff compute(HashTree before, HashTree after) {
+        List<Change> changes = new ArrayList<>();
+        diffChildren("", null, before, after, changes);
+        return new TestPlanDiff(changes);
+    }
+
+    private static void diffChildren(String parentPath, TestElement parent, HashTree before, HashTree after,
+            List<Change> changes) {
+        Map<String, Deque<TestElement>> unmatched = new HashMap<>();
+        for (Object key : before.list()) {
+            TestElement element = (TestElement) key;
+            unmatched.computeIfAbsent(identity(element), k -> new ArrayDeque<>()).add(element);
+        }
+        int index = 0;
+        TestElement previous = null;
+        for (Object key : after.list()) {
+            TestElement afterElement = (TestElement) key;
+            String path = parentPath + PATH_SEPARATOR + afterElement.getName();
+            Deque<TestElement> candidates = unmatched.get(identity(afterElement));
+            TestElement beforeElement = candidates != null ? candidates.poll() : null;
+            if (beforeElement == null) {
+                changes.add(new Change(Kind.ADDED, path, parent, index, previous, null, afterElement,
+                    after.getTree(afterElement), List.of()));
+            } else {
+                List<String> changed = changedProperties(beforeElement, afterElement);
+                if (!changed.isEmpty()) {
+                    changes.add(new Change(Kind.MODIFIED, path, null, index, null, beforeElement, afterElement,
+                        null, changed));
+                }
+                diffChildren(path, beforeElement, before.getTree(beforeElement), after.getTree(afterElement),
+                    changes);
+            }
+            previous = beforeElement != null ? beforeElement : afterElement;
+            index++;
+        }
+        for (Object key : before.list()) {
+            TestElement beforeElement = (TestElement) key;
+            Deque<TestElement> candidates = unmatched.get(identity(beforeElement));
+            // By identity: equal siblings may already have been matched
+            if (candidates.removeIf(element -> element == beforeElement)) {
+                changes.add(new Change(Kind.REMOVED, parentPath + PATH_SEPARATOR + beforeElement.getName(),
+                    null, -1, null, beforeElement, null, null, List.of()));
+            }
+        }
+    }
+
+    private static String identity(TestElement element) {
+        if (element instanceof TestPlan) {
+            return element.getClass().getName();
+        }
+        return element.getClass().getName() + '\0' + element.getName();
+    }
+
+    private static List<String> changedProperties(TestElement before, TestElement after) {
+        List<String> changed = new ArrayList<>();
+        PropertyIterator iterator = after.propertyIterator();
+        while (iterator.hasNext()) {
+            JMeterProperty afterProperty = iterator.next();
+            JMeterProperty beforeProperty = before.getProperty(afterProperty.getName());
+            String afterValue = afterProperty.getStringValue();
+            String beforeValue = beforeProperty instanceof NullProperty ? "" : beforeProperty.getStringValue();
+            if (!Objects.equals(Objects.toString(afterValue, ""), Objects.toString(beforeValue, ""))) {
+                changed.add(afterProperty.getName());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the changes, parents before their children.
+     */
+    List<Change> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns this diff without the changes of a kind.
+     */
+    TestPlanDiff without(Kind kind) {
+        return new TestPlanDiff(changes.stream().filter(change -> change.kind() != kind).toList());
+    }
+
+    /**
+     * Returns whether the trees are the same.
+     */
+    boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Returns the number of changes of a kind.
+     */
+    long count(Kind kind) {
+        return changes.stream().filter(change -> change.kind() == kind).count();
+    }
+
+    /**
+     * Returns a one-line summary, e.g. "2 added, 0 removed, 1 modified".
+     */
+    String summary() {
+        return count(Kind.ADDED) + " added, " + count(Kind.REMOVED) + " removed, "
+            + count(Kind.MODIFIED) + " modified";
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import java.util.Objects;
+import java.util.logging.Logger;
+
+import javax.swing.JTree;
+import javax.swing.tree.TreePath;
+
+import org.apache.jmeter.exceptions.IllegalUserActionException;
+import org.apache.jmeter.gui.GuiPackage;
+import org.apache.jmeter.gui.tree.JMeterTreeModel;
+import org.apache.jmeter.gui.tree.JMeterTreeNode;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.TestPlan;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+
+/**
+ * Merges a generated test plan into the one open in JMeter, changing only
+ * the elements that differ instead of replacing the whole tree. Unchanged
+ * nodes stay in place, so the tree keeps its selection and expanded paths,
+ * and small edits don't pay for rebuilding the GUI of every element.
+ * <p>
+ * Elements are only removed when the generated tree is a complete plan, i.e.
+ * its root is a test plan with the same name as the open one. Anything else
+ * is treated as a fragment of the open plan: its elements are added or
+ * updated under the test plan, and the rest of the plan is kept. Positions
+ * within a fragment say nothing about the open plan, so added elements are
+ * placed after the sibling they follow in the fragment, or last.
+ * <p>
+ * Must be called on the EDT.
+ */
+final class TestPlanMerger {
+
+    private static final Logger LOG = Logger.getLogger(TestPlanMerger.class.getName());
+
+    /**
+     * Outcome of a merge.
+     *
+     * @param applied the changes made to the open plan
+     * @param kept    number of elements missing from a generated fragment
+     *                that were kept rather than removed
+     */
+    record Result(TestPlanDiff applied, long kept) {
+
+        /**
+         * Returns a one-line summary of the merge.
+         */
+        String summary() {
+            return kept == 0 ? applied.summary()
+                : applied.summary() + ", " + kept + " kept (not in the generated fragment)";
+        }
+    }
+
+    private TestPlanMerger() {
+        // Utility class
+    }
+
+    /**
+     * Merges the generated tree into the open test plan.
+     *
+     * @return the changes that were applied
+     * @throws IllegalUserActionException if JMeter refuses to add an element
+     */
+    static Result merge(GuiPackage guiPackage, HashTree generated) throws IllegalUserActionException {
+        CopilotEvents.MergeTree event = new CopilotEvents.MergeTree();
+        event.begin();
+        try {
+            // Save pending edits in the selected element's GUI before comparing
+            guiPackage.updateCurrentNode();
+            JMeterTreeModel treeModel = guiPackage.getTreeModel();
+            HashTree live = readTestPlan(treeModel);
+            TestElement livePlan = live.isEmpty() ? null : (TestElement) live.list().iterator().next();
+            boolean complete = isCompletePlan(generated, livePlan);
+            TestPlanDiff diff = TestPlanDiff.compute(live, complete ? generated : underPlan(generated, livePlan));
+            TestPlanDiff applied = complete ? diff : diff.without(TestPlanDiff.Kind.REMOVED);
+            Result result = new Result(applied, diff.count(TestPlanDiff.Kind.REMOVED) - applied.count(
+                TestPlanDiff.Kind.REMOVED));
+            if (applied.isEmpty()) {
+                event.succeeded = true;
+                return result;
+            }
+            for (TestPlanDiff.Change change : applied.getChanges()) {
+                if (change.kind() == TestPlanDiff.Kind.REMOVED) {
+                    remove(guiPackage, treeModel, change);
+                }
+            }
+            for (TestPlanDiff.Change change : applied.getChanges()) {
+                if (change.kind() == TestPlanDiff.Kind.MODIFIED) {
+                    modify(treeModel, change);
+                }
+            }
+            for (TestPlanDiff.Change change : applied.getChanges()) {
+                if (change.kind() == TestPlanDiff.Kind.ADDED) {
+                    add(treeModel, change, complete);
+                }
+            }
+            guiPackage.updateCurrentGui();
+            guiPackage.setDirty(true);
+            event.added = (int) applied.count(TestPlanDiff.Kind.ADDED);
+            event.removed = (int) applied.count(TestPlanDiff.Kind.REMOVED);
+            event.modified = (int) applied.count(TestPlanDiff.Kind.MODIFIED);
+            event.succeeded = true;
+            LOG.info("Merged generated test plan: " + result.summary());
+            return result;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the elements of the tree model as a tree. Unlike
+     * {@link JMeterTreeModel#getTestPlan()}, whose keys are tree nodes, the
+     * keys are the test elements themselves.
+     */
+    static HashTree readTestPlan(JMeterTreeModel treeModel) {
+        HashTree tree = new ListedHashTree();
+        addChildren(tree, (JMeterTreeNode) treeModel.getRoot());
+        return tree;
+    }
+
+    private static void addChildren(HashTree tree, JMeterTreeNode node) {
+        for (int i = 0; i < node.getChildCount(); i++) {
+            JMeterTreeNode child = (JMeterTreeNode) node.getChildAt(i);
+            addChildren(tree.add(child.getTestElement()), child);
+        }
+    }
+
+    private static boolean isCompletePlan(HashTree generated, TestElement livePlan) {
+        if (livePlan == null || generated.list().size() != 1) {
+            return livePlan == null;
+        }
+        Object root = generated.list().iterator().next();
+        return root instanceof TestPlan generatedPlan
+            && Objects.equals(generatedPlan.getName(), livePlan.getName());
+    }
+
+    /**
+     * Places a fragment under the open test plan, so its elements are
+     * compared with the plan's children. A generated test plan with another
+     * name is replaced by its children.
+     */
+    private static HashTree underPlan(HashTree generated, TestElement livePlan) {
+        HashTree children = generated;
+        if (generated.list().size() == 1 && generated.list().iterator().next() instanceof TestPlan plan) {
+            children = generated.getTree(plan);
+        }
+        HashTree wrapped = new ListedHashTree();
+        wrapped.set(livePlan, children);
+        return wrapped;
+    }
+
+    private static void remove(GuiPackage guiPackage, JMeterTreeModel treeModel, TestPlanDiff.Change change) {
+        JMeterTreeNode node = treeModel.getNodeOf(change.before());
+        if (node == null) {
+            return;
+        }
+        JMeterTreeNode current = guiPackage.getCurrentNode();
+        if (current != null && node.isNodeDescendant(current)) {
+            JTree tree = guiPackage.getTreeListener().getJTree();
+            if (tree != null) {
+                tree.setSelectionPath(new TreePath(((JMeterTreeNode) node.getParent()).getPath()));
+            }
+        }
+        treeModel.removeNodeFromParent(node);
+        guiPackage.removeNode(change.before());
+    }
+
+    private static void modify(JMeterTreeModel treeModel, TestPlanDiff.Change change) {
+        for (String name : change.properties()) {
+            JMeterProperty property = change.after().getProperty(name);
+            change.before().setProperty((JMeterProperty) property.clone());
+        }
+        JMeterTreeNode node = treeModel.getNodeOf(change.before());
+        if (node != null) {
+            treeModel.nodeChanged(node);
+        }
+    }
+
+    private static void add(JMeterTreeModel treeModel, TestPlanDiff.Change change, boolean complete)
+            throws IllegalUserActionException {
+        JMeterTreeNode parent = change.parent() == null
+            ? (JMeterTreeNode) treeModel.getRoot()
+            : treeModel.getNodeOf(change.parent());
+        if (parent == null) {
+            LOG.warning("No tree node for the parent of " + change.path());
+            return;
+        }
+        JMeterTreeNode node = treeModel.addComponent(change.after(), parent);
+        int index = complete
+            ? Math.min(change.index(), parent.getChildCount() - 1)
+            : fragmentIndex(treeModel, change, parent);
+        if (parent.getIndex(node) != index) {
+            treeModel.removeNodeFromParent(node);
+            treeModel.insertNodeInto(node, parent, index);
+        }
+        treeModel.addSubTree(change.subTree(), node);
+    }
+
+    /**
+     * Returns the position after the node of the sibling the added element
+     * follows in the fragment, or the last position if there is none.
+     */
+    private static int fragmentIndex(JMeterTreeModel treeModel, TestPlanDiff.Change change, JMeterTreeNode parent) {
+        int last = parent.getChildCount() - 1;
+        JMeterTreeNode previous = change.previous() == null ? null : treeModel.getNodeOf(change.previous());
+        if (previous == null || previous.getParent() != parent) {
+            return last;
+        }
+        return Math.min(parent.getIndex(previous) + 1, last);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for CancellationToken class.
+ */
+@DisplayName("CancellationToken Tests")
+class CancellationTokenTest {
+
+    @Test
+    @DisplayName("should run callbacks once, including those registered after cancelling")
+    void shouldRunCallbacksOnce() {
+        CancellationToken token = new CancellationToken();
+        AtomicInteger calls = new AtomicInteger();
+        token.onCancel(calls::incrementAndGet);
+
+        token.cancel();
+        token.cancel();
+        token.onCancel(calls::incrementAndGet);
+
+        assertThat(token.isCancelled()).isTrue();
+        assertThat(calls).hasValue(2);
+        assertThatThrownBy(token::throwIfCancelled).isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    @DisplayName("should cancel children with their parent but not the other way round")
+    void shouldCancelChildrenWithParent() {
+        CancellationToken parent = new CancellationToken();
+        CancellationToken first = parent.child();
+        CancellationToken second = parent.child();
+
+        first.cancel();
+        assertThat(parent.isCancelled()).isFalse();
+        assertThat(second.isCancelled()).isFalse();
+
+        parent.cancel();
+        assertThat(second.isCancelled()).isTrue();
+        assertThat(CancellationToken.NONE.child().isCancelled()).isFalse();
+    }
+}
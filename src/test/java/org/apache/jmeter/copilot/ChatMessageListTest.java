@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import javax.swing.ListModel;
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for ChatMessageList class.
+ */
+@DisplayName("ChatMessageList Tests")
+class ChatMessageListTest {
+
+    private ChatMessageRenderer renderer;
+    private ChatMessageList list;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new ChatMessageRenderer();
+        list = new ChatMessageList(renderer);
+        list.setSize(400, 600);
+    }
+
+    @Test
+    @DisplayName("should show one cell per message")
+    void shouldShowOneCellPerMessage() {
+        ChatMessage question = new ChatMessage(ChatMessage.Role.USER, "Create a test plan");
+        ChatMessage answer = new ChatMessage(ChatMessage.Role.ASSISTANT, "Here is a test plan...");
+
+        list.setMessages(List.of(question, answer));
+
+        ListModel<ChatMessage> model = list.getModel();
+        assertThat(model.getSize()).isEqualTo(2);
+        assertThat(model.getElementAt(0)).isSameAs(question);
+        assertThat(model.getElementAt(1)).isSameAs(answer);
+    }
+
+    @Test
+    @DisplayName("should keep existing cells when messages are appended or evicted")
+    void shouldKeepExistingCellsWhenMessagesChange() {
+        ChatMessage first = new ChatMessage(ChatMessage.Role.USER, "First");
+        ChatMessage second = new ChatMessage(ChatMessage.Role.ASSISTANT, "Second");
+        ChatMessage third = new ChatMessage(ChatMessage.Role.USER, "Third");
+        list.setMessages(List.of(first, second));
+
+        list.setMessages(List.of(second, third));
+
+        ListModel<ChatMessage> model = list.getModel();
+        assertThat(model.getSize()).isEqualTo(2);
+        assertThat(model.getElementAt(0)).isSameAs(second);
+        assertThat(model.getElementAt(1)).isSameAs(third);
+    }
+
+    @Test
+    @DisplayName("should replace the streaming cell on each update")
+    void shouldReplaceStreamingCellOnEachUpdate() {
+        list.setMessages(List.of(new ChatMessage(ChatMessage.Role.USER, "Question")));
+
+        list.setStreamingContent("Here");
+        list.setStreamingContent("Here is the plan");
+
+        ListModel<ChatMessage> model = list.getModel();
+        assertThat(model.getSize()).isEqualTo(2);
+        assertThat(model.getElementAt(1).getContent()).isEqualTo("Here is the plan");
+    }
+
+    @Test
+    @DisplayName("should drop the streaming cell when messages are refreshed")
+    void shouldDropStreamingCellOnRefresh() {
+        ChatMessage question = new ChatMessage(ChatMessage.Role.USER, "Question");
+        ChatMessage answer = new ChatMessage(ChatMessage.Role.ASSISTANT, "Answer");
+        list.setMessages(List.of(question));
+        list.setStreamingContent("Ans");
+
+        list.setMessages(List.of(question, answer));
+
+        ListModel<ChatMessage> model = list.getModel();
+        assertThat(model.getSize()).isEqualTo(2);
+        assertThat(model.getElementAt(1)).isSameAs(answer);
+    }
+
+    @Test
+    @DisplayName("should measure taller cells for longer messages")
+    void shouldMeasureTallerCellsForLongerMessages() {
+        ChatMessage shortMessage = new ChatMessage(ChatMessage.Role.USER, "Hi");
+        ChatMessage longMessage = new ChatMessage(ChatMessage.Role.USER, "Line\n".repeat(20));
+        list.setMessages(List.of(shortMessage, longMessage));
+
+        int shortHeight = cellHeight(shortMessage, 0);
+        int longHeight = cellHeight(longMessage, 1);
+
+        assertThat(longHeight).isGreaterThan(shortHeight);
+    }
+
+    @Test
+    @DisplayName("should only re-measure cells painted after a resize")
+    void shouldOnlyRemeasurePaintedCellsAfterResize() throws Exception {
+        ChatMessage visible = new ChatMessage(ChatMessage.Role.USER, "Word ".repeat(100));
+        ChatMessage hidden = new ChatMessage(ChatMessage.Role.USER, "Word ".repeat(100));
+        list.setMessages(List.of(visible, hidden));
+        int wideHeight = cellHeight(visible, 0);
+        cellHeight(hidden, 1);
+        long measured = list.getMeasureCount();
+
+        list.setSize(150, 600);
+        // Stale rows keep their height until they are painted
+        assertThat(cellHeight(hidden, 1)).isEqualTo(wideHeight);
+        assertThat(list.getMeasureCount()).isEqualTo(measured);
+
+        paintCell(visible, 0);
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertThat(cellHeight(visible, 0)).isGreaterThan(wideHeight);
+        assertThat(cellHeight(hidden, 1)).isEqualTo(wideHeight);
+        assertThat(list.getMeasureCount()).isEqualTo(measured + 1);
+    }
+
+    private void paintCell(ChatMessage message, int index) {
+        Component cell = list.getCellRenderer()
+            .getListCellRendererComponent(list, message, index, false, false);
+        cell.setSize(list.getWidth(), cell.getPreferredSize().height);
+        BufferedImage image = new BufferedImage(list.getWidth(), 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            cell.paint(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private int cellHeight(ChatMessage message, int index) {
+        Component cell = list.getCellRenderer()
+            .getListCellRendererComponent(list, message, index, false, false);
+        return cell.getPreferredSize().height;
+    }
+}
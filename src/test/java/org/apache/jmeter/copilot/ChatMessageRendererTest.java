@@ -142,6 +142,16 @@ class ChatMessageRendererTest {
         assertThat(html).containsPattern("\\d{2}:\\d{2}");
     }
 
+    @Test
+    @DisplayName("should mark responses served from the response cache")
+    void shouldMarkCachedResponses() {
+        ChatMessage generated = new ChatMessage(ChatMessage.Role.ASSISTANT, "Plan", 0L);
+        ChatMessage cached = new ChatMessage(ChatMessage.Role.ASSISTANT, "Plan", 0L, true);
+
+        assertThat(renderer.renderMessage(generated)).doesNotContain(ChatMessageRenderer.CACHED_LABEL);
+        assertThat(renderer.renderMessage(cached)).contains(ChatMessageRenderer.CACHED_LABEL);
+    }
+
     @Test
     @DisplayName("should render streaming message with indicator")
     void shouldRenderStreamingMessageWithIndicator() {
@@ -170,4 +180,52 @@ class ChatMessageRendererTest {
 
         assertThat(html).contains("<br>");
     }
+
+    @Test
+    @DisplayName("should reuse rendered HTML for unchanged messages")
+    void shouldReuseRenderedHtmlForUnchangedMessages() {
+        List<ChatMessage> messages = List.of(
+            new ChatMessage(ChatMessage.Role.USER, "Create a test plan"),
+            new ChatMessage(ChatMessage.Role.ASSISTANT, "Here is a test plan...")
+        );
+
+        String first = renderer.renderMessages(messages);
+        String second = renderer.renderMessages(messages);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(renderer.getCacheMisses()).isEqualTo(2);
+        assertThat(renderer.getCacheHits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should cache collapsed and expanded renderings separately")
+    void shouldCacheCollapsedAndExpandedRenderingsSeparately() {
+        ChatMessage message = new ChatMessage(ChatMessage.Role.ASSISTANT,
+            "Here is some code:\n```xml\n<test>value</test>\n```");
+
+        String collapsed = renderer.renderMessage(message);
+        renderer.setShowXmlExpanded(true);
+        String expanded = renderer.renderMessage(message);
+
+        assertThat(collapsed).contains("xml-collapsed");
+        assertThat(expanded).contains("<pre>");
+        assertThat(renderer.getCacheMisses()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should evict least recently used renderings when cache is full")
+    void shouldEvictLeastRecentlyUsedRenderings() {
+        ChatMessageRenderer smallCacheRenderer = new ChatMessageRenderer(2);
+        ChatMessage first = new ChatMessage(ChatMessage.Role.USER, "First");
+        ChatMessage second = new ChatMessage(ChatMessage.Role.USER, "Second");
+        ChatMessage third = new ChatMessage(ChatMessage.Role.USER, "Third");
+
+        smallCacheRenderer.renderMessage(first);
+        smallCacheRenderer.renderMessage(second);
+        smallCacheRenderer.renderMessage(third);
+        smallCacheRenderer.renderMessage(first);
+
+        assertThat(smallCacheRenderer.getCacheHits()).isZero();
+        assertThat(smallCacheRenderer.getCacheMisses()).isEqualTo(4);
+    }
 }
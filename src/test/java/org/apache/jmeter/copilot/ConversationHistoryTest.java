@@ -19,6 +19,11 @@ package org.apache.jmeter.copilot;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -142,4 +147,138 @@ class ConversationHistoryTest {
             () -> messages.add(new ChatMessage(ChatMessage.Role.USER, "New"))
         );
     }
+
+    @Test
+    @DisplayName("should keep snapshots unchanged by later additions")
+    void shouldKeepSnapshotsUnchangedByLaterAdditions() {
+        ConversationHistory limitedHistory = new ConversationHistory(2);
+        limitedHistory.addMessage(new ChatMessage(ChatMessage.Role.USER, "First"));
+        limitedHistory.addMessage(new ChatMessage(ChatMessage.Role.ASSISTANT, "Second"));
+
+        List<ChatMessage> snapshot = limitedHistory.getMessages();
+        for (int i = 0; i < 10; i++) {
+            limitedHistory.addMessage(new ChatMessage(ChatMessage.Role.USER, "More " + i));
+        }
+
+        assertThat(snapshot).extracting(ChatMessage::getContent).containsExactly("First", "Second");
+        assertThat(limitedHistory.getMessages()).extracting(ChatMessage::getContent)
+            .containsExactly("More 8", "More 9");
+    }
+
+    @Test
+    @DisplayName("should share the snapshot between reads until the next change")
+    void shouldShareSnapshotUntilNextChange() {
+        history.addMessage(new ChatMessage(ChatMessage.Role.USER, "First"));
+        List<ChatMessage> snapshot = history.getMessages();
+
+        assertThat(history.getMessages()).isSameAs(snapshot);
+
+        history.addMessage(new ChatMessage(ChatMessage.Role.ASSISTANT, "Second"));
+
+        assertThat(history.getMessages()).isNotSameAs(snapshot).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("should evict in insertion order across many additions")
+    void shouldEvictInInsertionOrderAcrossManyAdditions() {
+        ConversationHistory limitedHistory = new ConversationHistory(5);
+
+        for (int i = 0; i < 1000; i++) {
+            limitedHistory.addMessage(new ChatMessage(ChatMessage.Role.USER, Integer.toString(i)));
+        }
+
+        assertThat(limitedHistory.size()).isEqualTo(5);
+        assertThat(limitedHistory.getMessages()).extracting(ChatMessage::getContent)
+            .containsExactly("995", "996", "997", "998", "999");
+    }
+
+    @Test
+    @DisplayName("should allow reading while another thread is writing")
+    void shouldAllowReadingWhileWriting() throws Exception {
+        ConversationHistory limitedHistory = new ConversationHistory(50);
+        AtomicBoolean done = new AtomicBoolean(false);
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                limitedHistory.addMessage(new ChatMessage(ChatMessage.Role.ASSISTANT, "Chunk " + i));
+            }
+            done.set(true);
+        });
+
+        while (!done.get()) {
+            for (ChatMessage message : limitedHistory.getMessages()) {
+                assertThat(message).isNotNull();
+            }
+        }
+        writer.get(10, TimeUnit.SECONDS);
+
+        assertThat(limitedHistory.size()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("should summarize generated XML of older answers when over budget")
+    void shouldSummarizeGeneratedXmlWhenOverBudget() {
+        ConversationHistory budgetedHistory = new ConversationHistory(100, 1_000);
+        String plan = "<jmeterTestPlan>\n" + "  <hashTree/>\n".repeat(400) + "</jmeterTestPlan>";
+        budgetedHistory.addMessage(new ChatMessage(ChatMessage.Role.USER, "Create a plan"));
+        budgetedHistory.addMessage(new ChatMessage(ChatMessage.Role.ASSISTANT,
+            "Here it is:\n```xml\n" + plan + "\n```\nEnjoy."));
+
+        budgetedHistory.addMessage(new ChatMessage(ChatMessage.Role.USER, "Thanks"));
+        budgetedHistory.addMessage(new ChatMessage(ChatMessage.Role.ASSISTANT, "You're welcome"));
+
+        assertThat(budgetedHistory.getEstimatedTokens()).isLessThanOrEqualTo(1_000);
+        assertThat(budgetedHistory.getMessages().get(1).getContent())
+            .contains("XML omitted")
+            .doesNotContain("<hashTree/>");
+        assertThat(budgetedHistory.getLastMessage()).hasValueSatisfying(msg ->
+            assertThat(msg.getContent()).isEqualTo("You're welcome"));
+    }
+
+    @Test
+    @DisplayName("should collapse old exchanges into digests when over budget")
+    void shouldCollapseOldExchangesIntoDigests() {
+        ConversationHistory budgetedHistory = new ConversationHistory(100, 200);
+        for (int i = 0; i < 5; i++) {
+            budgetedHistory.addMessage(new ChatMessage(ChatMessage.Role.USER, "Question " + i + " " + "x".repeat(100)));
+            budgetedHistory.addMessage(new ChatMessage(ChatMessage.Role.ASSISTANT, "Answer " + i + " " + "y".repeat(100)));
+        }
+
+        assertThat(budgetedHistory.getEstimatedTokens()).isLessThanOrEqualTo(200);
+        assertThat(budgetedHistory.getMessages().get(0).getRole()).isEqualTo(ChatMessage.Role.SYSTEM);
+        assertThat(budgetedHistory.getMessages().get(0).getContent()).startsWith("Earlier exchange");
+        assertThat(budgetedHistory.getLastMessage()).hasValueSatisfying(msg ->
+            assertThat(msg.getContent()).startsWith("Answer 4"));
+    }
+
+    @Test
+    @DisplayName("should not compact again while the current turn alone is over budget")
+    void shouldSkipCompactionWhileCurrentTurnIsOverBudget() {
+        ConversationHistory budgetedHistory = new ConversationHistory(100, 100);
+        budgetedHistory.addMessage(new ChatMessage(ChatMessage.Role.USER, "Create a big plan"));
+        budgetedHistory.addMessage(new ChatMessage(ChatMessage.Role.ASSISTANT, "x".repeat(2_000)));
+        budgetedHistory.addMessage(new ChatMessage(ChatMessage.Role.ASSISTANT, "Anything else?"));
+
+        assertThat(budgetedHistory.getCompactionCount()).isEqualTo(1);
+
+        budgetedHistory.addMessage(new ChatMessage(ChatMessage.Role.USER, "Next"));
+
+        assertThat(budgetedHistory.getCompactionCount()).isEqualTo(2);
+        assertThat(budgetedHistory.getEstimatedTokens()).isLessThanOrEqualTo(100);
+        assertThat(budgetedHistory.getMessages().get(0).getContent()).startsWith("Earlier exchange");
+        assertThat(budgetedHistory.getLastMessage()).hasValueSatisfying(msg ->
+            assertThat(msg.getContent()).isEqualTo("Next"));
+    }
+
+    @Test
+    @DisplayName("should not compact history within budget")
+    void shouldNotCompactHistoryWithinBudget() {
+        ChatMessage question = new ChatMessage(ChatMessage.Role.USER, "Q1");
+        ChatMessage answer = new ChatMessage(ChatMessage.Role.ASSISTANT, "```xml\n<jmeterTestPlan/>\n```");
+
+        history.addMessage(question);
+        history.addMessage(answer);
+
+        assertThat(history.getMessages()).containsExactly(question, answer);
+    }
 }
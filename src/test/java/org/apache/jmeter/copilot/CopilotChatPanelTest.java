@@ -19,20 +19,34 @@ package org.apache.jmeter.copilot;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.awt.BorderLayout;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import javax.swing.JButton;
 import javax.swing.JTextArea;
-
+import javax.swing.SwingUtilities;
+
+import org.apache.jmeter.control.GenericController;
+import org.apache.jmeter.gui.GuiPackage;
+import org.apache.jmeter.gui.tree.JMeterTreeModel;
+import org.apache.jmeter.gui.tree.JMeterTreeNode;
+import org.apache.jmeter.testelement.TestPlan;
+import org.apache.jorphan.collections.HashTree;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -61,6 +75,8 @@ class CopilotChatPanelTest {
     void setUp() {
         // Create panel with mocked services
         when(mockChatService.getConversationHistory()).thenReturn(new ConversationHistory());
+        when(mockChatService.getCachedModels()).thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(mockChatService.getAvailableModels()).thenReturn(CompletableFuture.completedFuture(List.of()));
         panel = new CopilotChatPanel(mockChatService, mockXmlParser);
     }
 
@@ -149,10 +165,76 @@ class CopilotChatPanelTest {
         verify(mockChatService).setMessageHandler(any());
     }
 
+    @Test
+    @DisplayName("should show the cached models without fetching them before connecting")
+    void shouldNotFetchModelsBeforeConnecting() {
+        verify(mockChatService).getCachedModels();
+        verify(mockChatService, never()).getAvailableModels();
+    }
+
     @Test
     @DisplayName("should have placeholder text in input area")
     void shouldHavePlaceholderTextInInputArea() {
         String text = panel.getInputArea().getText();
         assertThat(text).contains("Describe");
     }
+
+    @Test
+    @DisplayName("should read the open test plan with test elements as keys")
+    void shouldReadOpenTestPlanAsTestElements() throws Exception {
+        JMeterTreeModel treeModel = new JMeterTreeModel(new Object());
+        JMeterTreeNode planNode = treeModel.addComponent(new TestPlan("Plan"), (JMeterTreeNode) treeModel.getRoot());
+        GenericController login = new GenericController();
+        login.setName("Login");
+        treeModel.addComponent(login, planNode);
+        GuiPackage guiPackage = mock(GuiPackage.class);
+        when(guiPackage.getTreeModel()).thenReturn(treeModel);
+
+        HashTree plan = CopilotChatPanel.readOpenTestPlan(guiPackage);
+
+        verify(guiPackage).updateCurrentNode();
+        PlanContextTracker tracker = new PlanContextTracker();
+        assertThat(tracker.nextContext(PlanContextTracker.snapshot(plan)))
+            .contains("+ /Plan (TestPlan)", "+ /Plan/Login (GenericController)");
+        tracker.markSeen(CopilotChatPanel.readOpenTestPlan(guiPackage));
+        assertThat(tracker.nextContext(PlanContextTracker.snapshot(plan))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should show a response delivered before its turn has started")
+    @SuppressWarnings("unchecked")
+    void shouldShowResponseDeliveredBeforeTurnStarts() throws Exception {
+        ArgumentCaptor<Consumer<String>> dispatched = ArgumentCaptor.forClass(Consumer.class);
+        ArgumentCaptor<Consumer<ChatMessage>> messages = ArgumentCaptor.forClass(Consumer.class);
+        verify(mockChatService).setPromptDispatchedHandler(dispatched.capture());
+        verify(mockChatService).setMessageHandler(messages.capture());
+
+        // A cached response is passed to the handler while the prompt is dispatched
+        dispatched.getValue().accept("prompt");
+        messages.getValue().accept(new ChatMessage(ChatMessage.Role.ASSISTANT, "cached answer"));
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertThat(panel.isProcessing()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should parse the final plan when it differs from the one seen while streaming")
+    @SuppressWarnings("unchecked")
+    void shouldReparseWhenFinalPlanDiffers() throws Exception {
+        ArgumentCaptor<Consumer<String>> dispatched = ArgumentCaptor.forClass(Consumer.class);
+        ArgumentCaptor<Consumer<String>> planComplete = ArgumentCaptor.forClass(Consumer.class);
+        ArgumentCaptor<Consumer<ChatMessage>> messages = ArgumentCaptor.forClass(Consumer.class);
+        verify(mockChatService).setPromptDispatchedHandler(dispatched.capture());
+        verify(mockChatService).setPlanCompleteHandler(planComplete.capture());
+        verify(mockChatService).setMessageHandler(messages.capture());
+        when(mockXmlParser.extractXmlFromText("full response")).thenReturn(Optional.of("<final/>"));
+
+        dispatched.getValue().accept("prompt");
+        SwingUtilities.invokeAndWait(() -> { });
+        planComplete.getValue().accept("<early/>");
+        messages.getValue().accept(new ChatMessage(ChatMessage.Role.ASSISTANT, "full response"));
+        SwingUtilities.invokeAndWait(() -> { });
+
+        verify(mockXmlParser, timeout(5_000)).parseExtractedXml(eq("<final/>"), any());
+    }
 }
@@ -20,26 +20,39 @@ package org.apache.jmeter.copilot;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import org.apache.jmeter.control.GenericController;
+import org.apache.jmeter.testelement.TestPlan;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.github.copilot.sdk.CopilotClient;
 import com.github.copilot.sdk.CopilotSession;
+import com.github.copilot.sdk.generated.AssistantMessageDeltaEvent;
+import com.github.copilot.sdk.generated.AssistantMessageEvent;
+import com.github.copilot.sdk.generated.SessionErrorEvent;
+import com.github.copilot.sdk.generated.SessionEvent;
+import com.github.copilot.sdk.generated.SessionIdleEvent;
 import com.github.copilot.sdk.json.MessageOptions;
 import com.github.copilot.sdk.json.ModelInfo;
 import com.github.copilot.sdk.json.SessionConfig;
@@ -82,7 +95,27 @@ class CopilotChatServiceTest {
 
         assertThat(service.isConnected()).isTrue();
         verify(mockClient).start();
-        verify(mockClient).createSession(any(SessionConfig.class));
+        verify(mockClient, times(2)).createSession(any(SessionConfig.class));
+    }
+
+    @Test
+    @DisplayName("should reuse a pending or established connection")
+    void shouldReuseConnection() throws Exception {
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        when(mockClient.start()).thenReturn(started);
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        when(mockSession.on(any())).thenReturn(() -> {});
+
+        CompletableFuture<Void> first = service.connect();
+        CompletableFuture<Void> second = service.connect();
+        started.complete(null);
+
+        assertThat(second).isSameAs(first);
+        assertThat(service.isConnectionStarted()).isTrue();
+        service.connect().get(5, TimeUnit.SECONDS);
+        verify(mockClient, times(1)).start();
+        verify(mockClient, times(2)).createSession(any(SessionConfig.class));
     }
 
     @Test
@@ -168,7 +201,32 @@ class CopilotChatServiceTest {
 
         assertThat(service.getConversationHistory().size()).isZero();
         verify(mockSession).close();
-        verify(mockClient, times(2)).createSession(any(SessionConfig.class));
+        // Initial session, its spare and the spare's replacement
+        verify(mockClient, times(3)).createSession(any(SessionConfig.class));
+    }
+
+    @Test
+    @DisplayName("should switch to the spare session on clear without waiting for a new one")
+    void shouldSwitchToSpareSessionOnClear() throws Exception {
+        CopilotSession spareSession = mock(CopilotSession.class);
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession))
+            .thenReturn(CompletableFuture.completedFuture(spareSession))
+            .thenReturn(new CompletableFuture<>());
+        when(mockSession.on(any())).thenReturn(() -> {});
+        when(spareSession.on(any())).thenReturn(() -> {});
+        when(spareSession.send(any(MessageOptions.class)))
+            .thenReturn(CompletableFuture.completedFuture("msg-456"));
+
+        service.connect().get(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> cleared = service.clearConversation();
+
+        // The replacement spare never completes, yet the clear is done
+        cleared.get(5, TimeUnit.SECONDS);
+        verify(mockSession).close();
+        service.sendMessage("After clear").get(5, TimeUnit.SECONDS);
+        verify(spareSession).send(any(MessageOptions.class));
     }
 
     @Test
@@ -198,7 +256,8 @@ class CopilotChatServiceTest {
         service.close();
 
         assertThat(service.isConnected()).isFalse();
-        verify(mockSession).close();
+        // Both the session and the spare session
+        verify(mockSession, times(2)).close();
         verify(mockClient).close();
     }
 
@@ -234,9 +293,353 @@ class CopilotChatServiceTest {
         when(mockClient.listModels()).thenReturn(
             CompletableFuture.completedFuture(java.util.List.of(model1, model2, model3)));
         
-        assertThat(service.getAvailableModels())
+        assertThat(service.getAvailableModels().join())
             .isNotNull()
             .isNotEmpty()
             .containsExactly("claude-sonnet-4", "gpt-4.1", "o3-mini");
     }
+
+    @Test
+    @DisplayName("should notify plan complete handler while the response is still streaming")
+    void shouldNotifyPlanCompleteHandlerWhileStreaming() throws Exception {
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        ArgumentCaptor<Consumer<SessionEvent>> eventHandler = ArgumentCaptor.captor();
+        when(mockSession.on(eventHandler.capture())).thenReturn(() -> {});
+        List<String> plans = new ArrayList<>();
+        service.setPlanCompleteHandler(plans::add);
+
+        service.connect().get(5, TimeUnit.SECONDS);
+        eventHandler.getValue().accept(delta("```xml\n<jmeterTestPlan><hashTree/>"));
+        assertThat(plans).isEmpty();
+        eventHandler.getValue().accept(delta("</jmeterTestPlan>\n```\nMore prose follows"));
+
+        assertThat(plans).containsExactly("<jmeterTestPlan><hashTree/></jmeterTestPlan>");
+    }
+
+    @Test
+    @DisplayName("should queue messages while busy and send the next one when the session is idle")
+    void shouldSendQueuedMessageWhenSessionIsIdle() throws Exception {
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        ArgumentCaptor<Consumer<SessionEvent>> eventHandler = ArgumentCaptor.captor();
+        when(mockSession.on(eventHandler.capture())).thenReturn(() -> {});
+        when(mockSession.send(any(MessageOptions.class)))
+            .thenReturn(CompletableFuture.completedFuture("msg-123"));
+        List<String> dispatched = new ArrayList<>();
+        service.setPromptDispatchedHandler(dispatched::add);
+
+        service.connect().get(5, TimeUnit.SECONDS);
+        service.submitMessage("First message").get(5, TimeUnit.SECONDS);
+        CompletableFuture<String> second = service.submitMessage("Second message");
+
+        assertThat(dispatched).containsExactly("First message");
+        assertThat(service.getQueuedPrompts()).extracting(PromptQueue.Entry::prompt)
+            .containsExactly("Second message");
+
+        eventHandler.getValue().accept(new SessionIdleEvent());
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("msg-123");
+        assertThat(dispatched).containsExactly("First message", "Second message");
+        assertThat(service.getConversationHistory().size()).isEqualTo(2);
+        verify(mockSession, times(2)).send(any(MessageOptions.class));
+    }
+
+    @Test
+    @DisplayName("should send the next queued message after a session error")
+    void shouldSendQueuedMessageAfterSessionError() throws Exception {
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        ArgumentCaptor<Consumer<SessionEvent>> eventHandler = ArgumentCaptor.captor();
+        when(mockSession.on(eventHandler.capture())).thenReturn(() -> {});
+        when(mockSession.send(any(MessageOptions.class)))
+            .thenReturn(CompletableFuture.completedFuture("msg-123"));
+        List<String> dispatched = new ArrayList<>();
+        service.setPromptDispatchedHandler(dispatched::add);
+
+        service.connect().get(5, TimeUnit.SECONDS);
+        service.submitMessage("First message").get(5, TimeUnit.SECONDS);
+        CompletableFuture<String> second = service.submitMessage("Second message");
+        service.submitMessage("Third message");
+        eventHandler.getValue().accept(sessionError("Rate limited"));
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("msg-123");
+        assertThat(dispatched).containsExactly("First message", "Second message");
+        assertThat(service.getQueuedPrompts()).extracting(PromptQueue.Entry::prompt)
+            .containsExactly("Third message");
+    }
+
+    @Test
+    @DisplayName("should send the next queued message once an abort completes, only once per turn")
+    void shouldSendQueuedMessageAfterAbort() throws Exception {
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        ArgumentCaptor<Consumer<SessionEvent>> eventHandler = ArgumentCaptor.captor();
+        when(mockSession.on(eventHandler.capture())).thenReturn(() -> {});
+        when(mockSession.send(any(MessageOptions.class)))
+            .thenReturn(CompletableFuture.completedFuture("msg-123"));
+        CompletableFuture<Void> aborted = new CompletableFuture<>();
+        when(mockSession.abort()).thenReturn(aborted);
+        List<String> dispatched = new ArrayList<>();
+        service.setPromptDispatchedHandler(dispatched::add);
+
+        service.connect().get(5, TimeUnit.SECONDS);
+        service.submitMessage("First message").get(5, TimeUnit.SECONDS);
+        service.submitMessage("Second message");
+        service.submitMessage("Third message");
+        CompletableFuture<Void> abort = service.abort();
+        // The aborted turn ends with an error before the abort call returns
+        eventHandler.getValue().accept(sessionError("Aborted"));
+        aborted.complete(null);
+        abort.get(5, TimeUnit.SECONDS);
+
+        assertThat(dispatched).containsExactly("First message", "Second message");
+        assertThat(service.getQueuedPrompts()).extracting(PromptQueue.Entry::prompt)
+            .containsExactly("Third message");
+    }
+
+    @Test
+    @DisplayName("should answer a repeated first prompt from the response cache")
+    void shouldAnswerRepeatedFirstPromptFromCache(@TempDir Path cacheDir) throws Exception {
+        CopilotChatService cachingService = new CopilotChatService(mockClient, new ResponseCache(cacheDir, 10, 10, Runnable::run));
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        ArgumentCaptor<Consumer<SessionEvent>> eventHandler = ArgumentCaptor.captor();
+        when(mockSession.on(eventHandler.capture())).thenReturn(() -> {});
+        ArgumentCaptor<MessageOptions> sent = ArgumentCaptor.forClass(MessageOptions.class);
+        when(mockSession.send(sent.capture())).thenReturn(CompletableFuture.completedFuture("msg-123"));
+        List<ChatMessage> messages = new ArrayList<>();
+        cachingService.setMessageHandler(messages::add);
+
+        cachingService.connect().get(5, TimeUnit.SECONDS);
+        cachingService.submitMessage("Create a login flow test").get(5, TimeUnit.SECONDS);
+        eventHandler.getValue().accept(assistantMessage("Here is the login plan"));
+        eventHandler.getValue().accept(new SessionIdleEvent());
+        cachingService.clearConversation().get(5, TimeUnit.SECONDS);
+
+        String messageId = cachingService.submitMessage(" Create a login  flow test").get(5, TimeUnit.SECONDS);
+
+        assertThat(messageId).isEqualTo(CopilotChatService.CACHED_MESSAGE_ID);
+        assertThat(messages).extracting(ChatMessage::isCached).containsExactly(false, true);
+        assertThat(messages.get(1).getContent()).isEqualTo("Here is the login plan");
+        verify(mockSession, times(1)).send(any(MessageOptions.class));
+
+        // The session didn't see the cached turn, so it comes along with the next prompt
+        cachingService.submitMessage("Add a think time").get(5, TimeUnit.SECONDS);
+        assertThat(sent.getValue().getPrompt())
+            .contains("Here is the login plan")
+            .endsWith("Add a think time");
+    }
+
+    @Test
+    @DisplayName("should pass the winning fan-out response along with the next prompt")
+    void shouldSendFanoutWinnerWithNextPrompt() throws Exception {
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        ArgumentCaptor<Consumer<SessionEvent>> eventHandler = ArgumentCaptor.captor();
+        when(mockSession.on(eventHandler.capture())).thenReturn(() -> {});
+        ArgumentCaptor<MessageOptions> sent = ArgumentCaptor.forClass(MessageOptions.class);
+        when(mockSession.send(sent.capture())).thenReturn(CompletableFuture.completedFuture("msg-123"));
+        String plan = "```xml\n<jmeterTestPlan version=\"1.2\"><hashTree/></jmeterTestPlan>\n```";
+        when(mockSession.sendAndWait(any(MessageOptions.class), anyLong()))
+            .thenReturn(CompletableFuture.completedFuture(assistantMessage(plan)));
+        JMeterXmlParser xmlParser = new JMeterXmlParser(0) {
+            @Override
+            public HashTree loadFromXml(String xml) {
+                return new HashTree();
+            }
+        };
+
+        service.connect().get(5, TimeUnit.SECONDS);
+        service.sendMessageFanout("Create a login flow test", List.of("gpt-5"), xmlParser).get(5, TimeUnit.SECONDS);
+        service.submitMessage("Now add assertions").get(5, TimeUnit.SECONDS);
+
+        assertThat(sent.getValue().getPrompt())
+            .contains("Create a login flow test", "<jmeterTestPlan")
+            .endsWith("Now add assertions");
+    }
+
+    @Test
+    @DisplayName("should send the open test plan once, then only its changes")
+    void shouldSendPlanChangesWithPrompts() throws Exception {
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        ArgumentCaptor<Consumer<SessionEvent>> eventHandler = ArgumentCaptor.captor();
+        when(mockSession.on(eventHandler.capture())).thenReturn(() -> {});
+        ArgumentCaptor<MessageOptions> sent = ArgumentCaptor.forClass(MessageOptions.class);
+        when(mockSession.send(sent.capture())).thenReturn(CompletableFuture.completedFuture("msg-123"));
+        HashTree plan = new ListedHashTree();
+        HashTree planTree = plan.add(new TestPlan("Plan"));
+        service.setPlanContext(new PlanContextTracker());
+        service.setPlanSupplier(() -> plan);
+
+        service.connect().get(5, TimeUnit.SECONDS);
+        service.submitMessage("Add a login step").get(5, TimeUnit.SECONDS);
+        eventHandler.getValue().accept(new SessionIdleEvent());
+        GenericController login = new GenericController();
+        login.setName("Login");
+        planTree.add(login);
+        service.submitMessage("Make it faster").get(5, TimeUnit.SECONDS);
+
+        assertThat(sent.getAllValues().get(0).getPrompt())
+            .startsWith(PlanContextTracker.FULL_HEADER)
+            .endsWith("Add a login step");
+        assertThat(sent.getAllValues().get(1).getPrompt())
+            .startsWith(PlanContextTracker.DIFF_HEADER + "\n+ /Plan/Login (GenericController)")
+            .endsWith("Make it faster");
+        assertThat(service.getConversationHistory().getMessages())
+            .extracting(ChatMessage::getContent)
+            .contains("Add a login step", "Make it faster");
+    }
+
+    @Test
+    @DisplayName("should send the plan again when the prompt carrying it could not be sent")
+    void shouldResendPlanAfterFailedSend() throws Exception {
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        when(mockSession.on(any())).thenReturn(() -> {});
+        ArgumentCaptor<MessageOptions> sent = ArgumentCaptor.forClass(MessageOptions.class);
+        when(mockSession.send(sent.capture()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Disconnected")))
+            .thenReturn(CompletableFuture.completedFuture("msg-123"));
+        HashTree plan = new ListedHashTree();
+        plan.add(new TestPlan("Plan"));
+        service.setPlanContext(new PlanContextTracker());
+        service.setPlanSupplier(() -> plan);
+
+        service.connect().get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> service.submitMessage("Add a login step").get(5, TimeUnit.SECONDS))
+            .hasRootCauseMessage("Disconnected");
+        service.submitMessage("Add a login step").get(5, TimeUnit.SECONDS);
+
+        assertThat(sent.getAllValues().get(1).getPrompt())
+            .startsWith(PlanContextTracker.FULL_HEADER)
+            .endsWith("Add a login step");
+    }
+
+    @Test
+    @DisplayName("should not answer from the response cache when the prompt carries plan context")
+    void shouldBypassCacheWithPlanContext(@TempDir Path cacheDir) throws Exception {
+        CopilotChatService cachingService = new CopilotChatService(mockClient, new ResponseCache(cacheDir, 10, 10, Runnable::run));
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        ArgumentCaptor<Consumer<SessionEvent>> eventHandler = ArgumentCaptor.captor();
+        when(mockSession.on(eventHandler.capture())).thenReturn(() -> {});
+        ArgumentCaptor<MessageOptions> sent = ArgumentCaptor.forClass(MessageOptions.class);
+        when(mockSession.send(sent.capture())).thenReturn(CompletableFuture.completedFuture("msg-123"));
+        HashTree plan = new ListedHashTree();
+        plan.add(new TestPlan("Plan"));
+        cachingService.setPlanContext(new PlanContextTracker());
+        cachingService.setPlanSupplier(() -> plan);
+
+        cachingService.connect().get(5, TimeUnit.SECONDS);
+        cachingService.submitMessage("Create a login flow test").get(5, TimeUnit.SECONDS);
+        eventHandler.getValue().accept(assistantMessage("Here is the login plan"));
+        eventHandler.getValue().accept(new SessionIdleEvent());
+        cachingService.clearConversation().get(5, TimeUnit.SECONDS);
+        // A different plan is open now
+        plan.clear();
+        plan.add(new TestPlan("Other plan"));
+
+        String messageId = cachingService.submitMessage("Create a login flow test").get(5, TimeUnit.SECONDS);
+
+        assertThat(messageId).isEqualTo("msg-123");
+        assertThat(sent.getValue().getPrompt()).contains("/Other plan").endsWith("Create a login flow test");
+    }
+
+    @Test
+    @DisplayName("should send plan context along with a cached turn")
+    void shouldSendPlanContextWithCachedTurn(@TempDir Path cacheDir) throws Exception {
+        CopilotChatService cachingService = new CopilotChatService(mockClient, new ResponseCache(cacheDir, 10, 10, Runnable::run));
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        ArgumentCaptor<Consumer<SessionEvent>> eventHandler = ArgumentCaptor.captor();
+        when(mockSession.on(eventHandler.capture())).thenReturn(() -> {});
+        ArgumentCaptor<MessageOptions> sent = ArgumentCaptor.forClass(MessageOptions.class);
+        when(mockSession.send(sent.capture())).thenReturn(CompletableFuture.completedFuture("msg-123"));
+        // No plan is open for the first prompts, so they carry no plan context
+        HashTree plan = new ListedHashTree();
+        cachingService.setPlanContext(new PlanContextTracker());
+        cachingService.setPlanSupplier(() -> plan);
+
+        cachingService.connect().get(5, TimeUnit.SECONDS);
+        cachingService.submitMessage("Create a login flow test").get(5, TimeUnit.SECONDS);
+        eventHandler.getValue().accept(assistantMessage("Here is the login plan"));
+        eventHandler.getValue().accept(new SessionIdleEvent());
+        cachingService.clearConversation().get(5, TimeUnit.SECONDS);
+        assertThat(cachingService.submitMessage("Create a login flow test").get(5, TimeUnit.SECONDS))
+            .isEqualTo(CopilotChatService.CACHED_MESSAGE_ID);
+
+        plan.add(new TestPlan("Plan"));
+        cachingService.submitMessage("Add a think time").get(5, TimeUnit.SECONDS);
+
+        assertThat(sent.getValue().getPrompt())
+            .contains("Here is the login plan", PlanContextTracker.FULL_HEADER + "\n+ /Plan (TestPlan)")
+            .endsWith("Add a think time");
+    }
+
+    @Test
+    @DisplayName("should send queued prompts with the plan as it was when they were submitted")
+    void shouldSnapshotPlanWhenPromptIsQueued() throws Exception {
+        when(mockClient.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockClient.createSession(any(SessionConfig.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockSession));
+        ArgumentCaptor<Consumer<SessionEvent>> eventHandler = ArgumentCaptor.captor();
+        when(mockSession.on(eventHandler.capture())).thenReturn(() -> {});
+        ArgumentCaptor<MessageOptions> sent = ArgumentCaptor.forClass(MessageOptions.class);
+        when(mockSession.send(sent.capture())).thenReturn(CompletableFuture.completedFuture("msg-123"));
+        HashTree plan = new ListedHashTree();
+        HashTree planTree = plan.add(new TestPlan("Plan"));
+        List<String> reads = new ArrayList<>();
+        service.setPlanContext(new PlanContextTracker());
+        service.setPlanSupplier(() -> {
+            reads.add(Thread.currentThread().getName());
+            return plan;
+        });
+
+        service.connect().get(5, TimeUnit.SECONDS);
+        service.submitMessage("First message").get(5, TimeUnit.SECONDS);
+        GenericController login = new GenericController();
+        login.setName("Login");
+        planTree.add(login);
+        CompletableFuture<String> second = service.submitMessage("Second message");
+        // Edited after the second prompt was queued
+        login.setName("Renamed");
+        Thread idleThread = new Thread(() -> eventHandler.getValue().accept(new SessionIdleEvent()));
+        idleThread.start();
+        idleThread.join(5000);
+
+        second.get(5, TimeUnit.SECONDS);
+        assertThat(reads).containsOnly(Thread.currentThread().getName()).hasSize(2);
+        assertThat(sent.getValue().getPrompt()).contains("+ /Plan/Login").doesNotContain("Renamed");
+    }
+
+    private static SessionErrorEvent sessionError(String message) {
+        SessionErrorEvent event = new SessionErrorEvent();
+        event.setData(new SessionErrorEvent.SessionErrorEventData("error", message, null, null, null, null));
+        return event;
+    }
+
+    private static AssistantMessageEvent assistantMessage(String content) {
+        AssistantMessageEvent event = new AssistantMessageEvent();
+        event.setData(new AssistantMessageEvent.AssistantMessageEventData(
+            "msg-1", content, null, null, null, null, null, null, null, null, null));
+        return event;
+    }
+
+    private static AssistantMessageDeltaEvent delta(String content) {
+        AssistantMessageDeltaEvent event = new AssistantMessageDeltaEvent();
+        event.setData(new AssistantMessageDeltaEvent.AssistantMessageDeltaEventData("msg-1", content, null));
+        return event;
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.apache.jorphan.collections.HashTree;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for CopilotEvents class.
+ */
+@DisplayName("CopilotEvents Tests")
+class CopilotEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should record render and XML extraction events with payload sizes")
+    void shouldRecordRenderAndExtractionEvents() throws Exception {
+        String response = "Here you go:\n```xml\n<jmeterTestPlan version=\"1.2\"></jmeterTestPlan>\n```";
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(CopilotEvents.Render.class);
+            recording.enable(CopilotEvents.XmlExtraction.class);
+            recording.start();
+            new ChatMessageRenderer().renderMessages(List.of(
+                new ChatMessage(ChatMessage.Role.USER, "Create a plan"),
+                new ChatMessage(ChatMessage.Role.ASSISTANT, response)));
+            new JMeterXmlParser().extractXmlFromText(response);
+            recording.stop();
+            Path file = tempDir.resolve("copilot.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        RecordedEvent render = findEvent(events, "org.apache.jmeter.copilot.Render");
+        assertThat(render.getString("pass")).isEqualTo(CopilotEvents.Render.TRANSCRIPT);
+        assertThat(render.getInt("messageCount")).isEqualTo(2);
+        assertThat(render.getInt("htmlLength")).isPositive();
+
+        RecordedEvent extraction = findEvent(events, "org.apache.jmeter.copilot.XmlExtraction");
+        assertThat(extraction.getInt("textLength")).isEqualTo(response.length());
+        assertThat(extraction.getInt("xmlLength")).isEqualTo("<jmeterTestPlan version=\"1.2\"></jmeterTestPlan>".length());
+    }
+
+    @Test
+    @DisplayName("should record a render event for each streaming and list cell render")
+    void shouldRecordStreamingAndListCellRenderEvents() throws Exception {
+        ChatMessageRenderer renderer = new ChatMessageRenderer();
+        ChatMessage message = new ChatMessage(ChatMessage.Role.ASSISTANT, "Adding a **login** step");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(CopilotEvents.Render.class);
+            recording.start();
+            renderer.renderStreamingFragment("Adding a **lo");
+            renderer.renderStreamingFragment("Adding a **login**");
+            renderer.renderListCell(message, false);
+            recording.stop();
+            Path file = tempDir.resolve("render.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        assertThat(events)
+            .filteredOn(e -> e.getEventType().getName().equals("org.apache.jmeter.copilot.Render"))
+            .extracting(e -> e.getString("pass"))
+            .containsExactlyInAnyOrder(CopilotEvents.Render.STREAMING, CopilotEvents.Render.STREAMING,
+                CopilotEvents.Render.LIST_CELL);
+    }
+
+    @Test
+    @DisplayName("should count the elements of a tree at all depths")
+    void shouldCountElementsAtAllDepths() {
+        HashTree tree = new HashTree();
+        tree.add("plan").add("group").add(List.of("sampler-1", "sampler-2"));
+        tree.add("other");
+
+        assertThat(CopilotEvents.countElements(tree)).isEqualTo(5);
+        assertThat(CopilotEvents.countElements(new HashTree())).isZero();
+    }
+
+    private static RecordedEvent findEvent(List<RecordedEvent> events, String name) {
+        return events.stream()
+            .filter(e -> e.getEventType().getName().equals(name))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No " + name + " event recorded"));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for CopilotExecutors class.
+ */
+@DisplayName("CopilotExecutors Tests")
+class CopilotExecutorsTest {
+
+    @Test
+    @DisplayName("should run background tasks on named plugin threads")
+    void shouldRunBackgroundTasksOnNamedThreads() throws Exception {
+        String threadName = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(),
+            CopilotExecutors.background()).get(5, TimeUnit.SECONDS);
+
+        assertThat(threadName).startsWith(CopilotExecutors.WORKER_NAME_PREFIX);
+        assertThat(CopilotExecutors.usesVirtualThreads()).isEqualTo(Runtime.version().feature() >= 21);
+    }
+
+    @Test
+    @DisplayName("should count running and completed background tasks")
+    void shouldCountRunningAndCompletedTasks() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        long completedBefore = CopilotExecutors.getCompletedCount();
+
+        CompletableFuture<Void> task = CompletableFuture.runAsync(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, CopilotExecutors.background());
+        started.await(5, TimeUnit.SECONDS);
+
+        assertThat(CopilotExecutors.getActiveCount()).isPositive();
+        release.countDown();
+        task.get(5, TimeUnit.SECONDS);
+        // The count is updated just after the task itself has completed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (CopilotExecutors.getCompletedCount() == completedBefore && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(CopilotExecutors.getCompletedCount()).isGreaterThan(completedBefore);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for CopilotMetrics class.
+ */
+@DisplayName("CopilotMetrics Tests")
+class CopilotMetricsTest {
+
+    @Test
+    @DisplayName("should compute percentiles of the recorded samples")
+    void shouldComputePercentiles() {
+        CopilotMetrics metrics = new CopilotMetrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(CopilotMetrics.Metric.PARSE_TIME, i);
+        }
+
+        MetricSnapshot snapshot = metrics.getParseTimeMillis();
+
+        assertThat(snapshot.getCount()).isEqualTo(100);
+        assertThat(snapshot.getMean()).isEqualTo(50.5);
+        assertThat(snapshot.getP50()).isEqualTo(50);
+        assertThat(snapshot.getP95()).isEqualTo(95);
+        assertThat(snapshot.getP99()).isEqualTo(99);
+        assertThat(snapshot.getMax()).isEqualTo(100);
+        assertThat(metrics.getRenderTimeMillis().getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should only keep the most recent samples")
+    void shouldOnlyKeepRecentSamples() {
+        CopilotMetrics metrics = new CopilotMetrics();
+        metrics.record(CopilotMetrics.Metric.TIME_TO_FIRST_TOKEN, 10_000);
+        for (int i = 0; i < CopilotMetrics.WINDOW_SIZE; i++) {
+            metrics.record(CopilotMetrics.Metric.TIME_TO_FIRST_TOKEN, 5);
+        }
+
+        MetricSnapshot snapshot = metrics.getTimeToFirstTokenMillis();
+
+        assertThat(snapshot.getCount()).isEqualTo(CopilotMetrics.WINDOW_SIZE + 1);
+        assertThat(snapshot.getMax()).isEqualTo(5);
+
+        metrics.reset();
+        assertThat(metrics.getTimeToFirstTokenMillis().getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should expose the shared instance as a platform MBean")
+    void shouldExposeSharedInstanceAsMBean() throws Exception {
+        CopilotMetrics.getInstance().record(CopilotMetrics.Metric.TOKENS_PER_SECOND, 42);
+
+        CompositeData tokensPerSecond = (CompositeData) ManagementFactory.getPlatformMBeanServer()
+            .getAttribute(new ObjectName(CopilotMetrics.OBJECT_NAME), "TokensPerSecond");
+
+        assertThat((Long) tokensPerSecond.get("count")).isPositive();
+        assertThat(tokensPerSecond.get("max")).isEqualTo(CopilotMetrics.getInstance().getTokensPerSecond().getMax());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for CopilotPreconnector class.
+ */
+@DisplayName("CopilotPreconnector Tests")
+class CopilotPreconnectorTest {
+
+    private CopilotChatService service;
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    void setUp() {
+        service = mock(CopilotChatService.class);
+        when(service.connect()).thenReturn(CompletableFuture.completedFuture(null));
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("should connect a standby service in the background and hand it out once")
+    void shouldConnectStandbyServiceAndHandItOutOnce() throws Exception {
+        CopilotPreconnector preconnector = new CopilotPreconnector(() -> service, scheduler, scheduler, 60);
+
+        preconnector.start();
+        awaitScheduler();
+
+        verify(service).connect();
+        assertThat(preconnector.claim()).isSameAs(service);
+        assertThat(preconnector.claim()).isNull();
+        verify(service, never()).close();
+    }
+
+    @Test
+    @DisplayName("should close the standby service after the idle timeout")
+    void shouldCloseStandbyServiceAfterIdleTimeout() throws Exception {
+        CopilotPreconnector preconnector = new CopilotPreconnector(() -> service, scheduler, scheduler, 0);
+
+        preconnector.start();
+        awaitScheduler();
+
+        verify(service).close();
+        assertThat(preconnector.claim()).isNull();
+    }
+
+    private void awaitScheduler() throws Exception {
+        // Tasks run in submission order, so this runs after the pre-connect tasks
+        scheduler.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+}
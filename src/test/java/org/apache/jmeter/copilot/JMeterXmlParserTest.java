@@ -18,9 +18,13 @@
 package org.apache.jmeter.copilot;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 
+import org.apache.jmeter.control.GenericController;
+import org.apache.jorphan.collections.HashTree;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -228,4 +232,92 @@ class JMeterXmlParserTest {
         assertThat(result).isPresent();
         assertThat(result.get()).startsWith("<?xml");
     }
+
+    @Test
+    @DisplayName("should serve repeated parses of the same plan from the cache")
+    void shouldServeRepeatedParsesFromCache() {
+        CountingParser countingParser = new CountingParser(1_000_000);
+
+        JMeterXmlParser.ParseResult first = countingParser.parseXml(MARKDOWN_WITH_XML);
+        JMeterXmlParser.ParseResult second = countingParser.parseXml(MARKDOWN_WITH_XML);
+
+        assertThat(countingParser.loads).isEqualTo(1);
+        assertThat(countingParser.getCacheHits()).isEqualTo(1);
+        assertThat(second.isSuccess()).isTrue();
+        assertThat(second.extractedXml()).isEqualTo(first.extractedXml());
+    }
+
+    @Test
+    @DisplayName("should return a copy of the cached tree")
+    void shouldReturnCopyOfCachedTree() {
+        CountingParser countingParser = new CountingParser(1_000_000);
+
+        HashTree first = countingParser.parseXml(MARKDOWN_WITH_XML).tree();
+        HashTree second = countingParser.parseXml(MARKDOWN_WITH_XML).tree();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.list()).hasSize(1);
+        assertThat(second.list().iterator().next()).isNotSameAs(first.list().iterator().next());
+    }
+
+    @Test
+    @DisplayName("should evict least recently used plans beyond the size limit")
+    void shouldEvictPlansBeyondSizeLimit() {
+        String small = "<jmeterTestPlan><hashTree/></jmeterTestPlan>";
+        String other = "<jmeterTestPlan><hashTree></hashTree></jmeterTestPlan>";
+        CountingParser countingParser = new CountingParser(small.length() + 10);
+
+        countingParser.parseExtractedXml(small);
+        countingParser.parseExtractedXml(other);
+        countingParser.parseExtractedXml(small);
+
+        assertThat(countingParser.loads).isEqualTo(3);
+        assertThat(countingParser.getCacheHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("should not parse or cache a plan once its token is cancelled")
+    void shouldNotParseOnceCancelled() {
+        CountingParser countingParser = new CountingParser(1_000_000);
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        JMeterXmlParser.ParseResult cancelled = countingParser.parseXml(MARKDOWN_WITH_XML, token);
+
+        assertThat(cancelled.isSuccess()).isFalse();
+        assertThat(cancelled.errorMessage()).isEqualTo(JMeterXmlParser.CANCELLED_MESSAGE);
+        assertThat(countingParser.loads).isZero();
+        assertThat(countingParser.parseXml(MARKDOWN_WITH_XML).isSuccess()).isTrue();
+        assertThat(countingParser.getCacheHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("should not start loading a plan whose token is already cancelled")
+    void shouldNotStartLoadingOnceCancelled() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        assertThatThrownBy(() -> parser.loadFromXml("<jmeterTestPlan><hashTree/></jmeterTestPlan>", token))
+            .isInstanceOf(CancellationException.class);
+    }
+
+    /**
+     * Parser that builds a one-element tree instead of going through SaveService.
+     */
+    private static class CountingParser extends JMeterXmlParser {
+
+        private int loads;
+
+        CountingParser(long maxCachedChars) {
+            super(maxCachedChars);
+        }
+
+        @Override
+        public HashTree loadFromXml(String xml) {
+            loads++;
+            HashTree tree = new HashTree();
+            tree.add(new GenericController());
+            return tree;
+        }
+    }
 }
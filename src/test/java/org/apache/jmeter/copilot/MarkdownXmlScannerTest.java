@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for MarkdownXmlScanner class.
+ */
+@DisplayName("MarkdownXmlScanner Tests")
+class MarkdownXmlScannerTest {
+
+    @Test
+    @DisplayName("should find fenced blocks with their language tags")
+    void shouldFindFencedBlocksWithLanguageTags() {
+        String text = """
+            Run it with:
+            ```bash
+            jmeter -n -t plan.jmx
+            ```
+            And the plan:
+            ```XML
+            <jmeterTestPlan/>
+            ```
+            """;
+
+        MarkdownXmlScanner.ScanResult result = MarkdownXmlScanner.scan(text);
+
+        assertThat(result.codeBlocks()).hasSize(2);
+        assertThat(result.codeBlocks().get(0).language()).isEqualTo("bash");
+        assertThat(result.codeBlocks().get(0).content()).isEqualTo("jmeter -n -t plan.jmx\n");
+        assertThat(result.codeBlocks().get(1).isXml()).isTrue();
+        assertThat(result.codeBlocks().get(1).content()).isEqualTo("<jmeterTestPlan/>\n");
+    }
+
+    @Test
+    @DisplayName("should find the raw test plan span")
+    void shouldFindRawTestPlanSpan() {
+        String text = "Plan: <jmeterTestPlan version=\"1.2\"><hashTree/></jmeterTestPlan> done";
+
+        MarkdownXmlScanner.ScanResult result = MarkdownXmlScanner.scan(text);
+
+        assertThat(result.rawPlan()).hasValue("<jmeterTestPlan version=\"1.2\"><hashTree/></jmeterTestPlan>");
+    }
+
+    @Test
+    @DisplayName("should find jmx paths in backticks and bare")
+    void shouldFindJmxPaths() {
+        String text = "Saved to `/tmp/my plans/load.jmx` and also to C:\\plans\\api-test.JMX.";
+
+        MarkdownXmlScanner.ScanResult result = MarkdownXmlScanner.scan(text);
+
+        assertThat(result.jmxPaths()).startsWith("/tmp/my plans/load.jmx");
+        assertThat(result.jmxPaths()).contains("C:\\plans\\api-test.JMX");
+    }
+
+    @Test
+    @DisplayName("should ignore an unclosed fence")
+    void shouldIgnoreUnclosedFence() {
+        MarkdownXmlScanner.ScanResult result = MarkdownXmlScanner.scan("```xml\n<jmeterTestPlan>");
+
+        assertThat(result.codeBlocks()).isEmpty();
+        assertThat(result.rawPlan()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should scan large responses with unbalanced fences in linear time")
+    void shouldScanUnbalancedFencesInLinearTime() {
+        String text = "```xml <jmeterTestPlan x ".repeat(200_000);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            MarkdownXmlScanner.ScanResult result = MarkdownXmlScanner.scan(text);
+            assertThat(result.rawPlan()).isEmpty();
+        });
+    }
+}
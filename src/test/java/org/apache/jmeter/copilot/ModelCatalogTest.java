@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for ModelCatalog class.
+ */
+@DisplayName("ModelCatalog Tests")
+class ModelCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("should serve the persisted list until the fetched list arrives")
+    void shouldServePersistedListUntilFetched() throws Exception {
+        Path file = tempDir.resolve("models.txt");
+        Files.write(file, List.of("gpt-4.1", "o3"));
+        CompletableFuture<List<String>> fetch = new CompletableFuture<>();
+        ModelCatalog catalog = new ModelCatalog(() -> fetch, file, Duration.ofMinutes(5), clock::get, Runnable::run);
+
+        assertThat(catalog.getCachedModels()).isCompletedWithValue(List.of("gpt-4.1", "o3"));
+        CompletableFuture<List<String>> refreshed = catalog.getModels();
+        fetch.complete(List.of("claude-sonnet-4", "gpt-5"));
+
+        assertThat(refreshed).isCompletedWithValue(List.of("claude-sonnet-4", "gpt-5"));
+        assertThat(catalog.getCachedModels()).isCompletedWithValue(List.of("claude-sonnet-4", "gpt-5"));
+        assertThat(Files.readAllLines(file)).containsExactly("claude-sonnet-4", "gpt-5");
+    }
+
+    @Test
+    @DisplayName("should fetch again only after the TTL has expired")
+    void shouldFetchAgainOnlyAfterTtl() {
+        ModelCatalog catalog = new ModelCatalog(this::fetch, null, Duration.ofSeconds(60), clock::get, Runnable::run);
+
+        catalog.getModels();
+        clock.addAndGet(Duration.ofSeconds(59).toNanos());
+        catalog.getModels();
+        assertThat(fetches).hasValue(1);
+
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertThat(catalog.getModels()).isCompletedWithValue(List.of("model-2"));
+        assertThat(fetches).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("should share an in-flight fetch and fall back to the cached list on failure")
+    void shouldShareInFlightFetchAndFallBackOnFailure() {
+        CompletableFuture<List<String>> fetch = new CompletableFuture<>();
+        ModelCatalog catalog = new ModelCatalog(() -> {
+            fetches.incrementAndGet();
+            return fetch;
+        }, null, Duration.ofSeconds(60), clock::get, Runnable::run);
+
+        CompletableFuture<List<String>> first = catalog.getModels();
+        CompletableFuture<List<String>> second = catalog.getModels();
+        fetch.completeExceptionally(new IllegalStateException("Not started"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(fetches).hasValue(1);
+        assertThat(first).isCompletedWithValue(ModelCatalog.DEFAULT_MODELS);
+    }
+
+    @Test
+    @DisplayName("should not leave a temporary file behind when the list cannot be written")
+    void shouldDeleteTemporaryFileWhenWriteFails() throws Exception {
+        // A non-empty directory can't be replaced by the move
+        Path file = Files.createDirectories(tempDir.resolve("models.txt"));
+        Files.createFile(file.resolve("keep"));
+        ModelCatalog catalog = new ModelCatalog(this::fetch, file, Duration.ofSeconds(60), clock::get, Runnable::run);
+
+        assertThat(catalog.getModels()).isCompletedWithValue(List.of("model-1"));
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    private CompletableFuture<List<String>> fetch() {
+        return CompletableFuture.completedFuture(List.of("model-" + fetches.incrementAndGet()));
+    }
+}
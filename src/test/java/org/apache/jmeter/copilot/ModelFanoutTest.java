@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.jorphan.collections.HashTree;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.github.copilot.sdk.CopilotSession;
+import com.github.copilot.sdk.generated.AssistantMessageEvent;
+import com.github.copilot.sdk.json.MessageOptions;
+
+/**
+ * Tests for ModelFanout class.
+ */
+@DisplayName("ModelFanout Tests")
+class ModelFanoutTest {
+
+    private static final String VALID_RESPONSE = """
+        Here is your plan:
+        ```xml
+        <?xml version="1.0" encoding="UTF-8"?>
+        <jmeterTestPlan version="1.2"><hashTree/></jmeterTestPlan>
+        ```
+        """;
+
+    private final JMeterXmlParser xmlParser = new JMeterXmlParser(0) {
+        @Override
+        public HashTree loadFromXml(String xml) {
+            return new HashTree();
+        }
+    };
+
+    @Test
+    @DisplayName("should take the first valid response and abort the others")
+    void shouldTakeFirstValidResponseAndAbortOthers() throws Exception {
+        CopilotSession slow = sessionAnswering(new CompletableFuture<>());
+        CopilotSession fast = sessionAnswering(CompletableFuture.completedFuture(answer(VALID_RESPONSE)));
+        ModelFanout fanout = new ModelFanout(sessions(Map.of("slow-model", slow, "fast-model", fast)),
+            xmlParser, Runnable::run);
+
+        ModelFanout.Result result = fanout.run("Create a plan", List.of("slow-model", "fast-model"))
+            .get(5, TimeUnit.SECONDS);
+
+        assertThat(result.model()).isEqualTo("fast-model");
+        assertThat(result.planXml()).contains("<jmeterTestPlan");
+        verify(slow).abort();
+        verify(fast, never()).abort();
+        verify(slow).close();
+        verify(fast).close();
+        // Large plans take longer than the SDK's default one-minute timeout
+        verify(fast).sendAndWait(any(MessageOptions.class),
+            eq(TimeUnit.SECONDS.toMillis(ModelFanout.DEFAULT_TIMEOUT_SECONDS)));
+    }
+
+    @Test
+    @DisplayName("should skip responses without a valid test plan")
+    void shouldSkipInvalidResponses() throws Exception {
+        CompletableFuture<AssistantMessageEvent> validLater = new CompletableFuture<>();
+        CopilotSession invalid = sessionAnswering(
+            CompletableFuture.completedFuture(answer("Sorry, I cannot help with that.")));
+        CopilotSession valid = sessionAnswering(validLater);
+        ModelFanout fanout = new ModelFanout(sessions(Map.of("invalid-model", invalid, "valid-model", valid)),
+            xmlParser, Runnable::run);
+
+        CompletableFuture<ModelFanout.Result> winner = fanout.run("Create a plan",
+            List.of("invalid-model", "valid-model"));
+        assertThat(winner).isNotDone();
+        validLater.complete(answer(VALID_RESPONSE));
+
+        assertThat(winner.get(5, TimeUnit.SECONDS).model()).isEqualTo("valid-model");
+    }
+
+    @Test
+    @DisplayName("should fail when no model returns a valid test plan")
+    void shouldFailWhenNoModelSucceeds() {
+        CopilotSession invalid = sessionAnswering(CompletableFuture.completedFuture(answer("No XML here")));
+        CopilotSession broken = sessionAnswering(CompletableFuture.failedFuture(new IllegalStateException("boom")));
+        ModelFanout fanout = new ModelFanout(sessions(Map.of("invalid-model", invalid, "broken-model", broken)),
+            xmlParser, Runnable::run);
+
+        CompletableFuture<ModelFanout.Result> winner = fanout.run("Create a plan",
+            List.of("invalid-model", "broken-model"));
+
+        assertThatThrownBy(() -> winner.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasMessageContaining("invalid-model")
+            .hasMessageContaining("broken-model");
+    }
+
+    @Test
+    @DisplayName("should select configured models or the selected model followed by available ones")
+    void shouldSelectModels() {
+        List<String> available = List.of("gpt-4.1", "claude-sonnet-4", "gpt-5", "o3");
+
+        assertThat(ModelFanout.selectModels(null, "claude-sonnet-4", available))
+            .containsExactly("claude-sonnet-4", "gpt-4.1", "gpt-5");
+        assertThat(ModelFanout.selectModels(" o3, gpt-5 ,o3", "claude-sonnet-4", available))
+            .containsExactly("o3", "gpt-5");
+    }
+
+    private static Function<String, CompletableFuture<CopilotSession>> sessions(
+            Map<String, CopilotSession> byModel) {
+        return model -> CompletableFuture.completedFuture(byModel.get(model));
+    }
+
+    private static CopilotSession sessionAnswering(CompletableFuture<AssistantMessageEvent> answer) {
+        CopilotSession session = mock(CopilotSession.class);
+        when(session.sendAndWait(any(MessageOptions.class), anyLong())).thenReturn(answer);
+        return session;
+    }
+
+    private static AssistantMessageEvent answer(String content) {
+        AssistantMessageEvent event = new AssistantMessageEvent();
+        event.setData(new AssistantMessageEvent.AssistantMessageEventData(
+            "msg-1", content, null, null, null, null, null, null, null, null, null));
+        return event;
+    }
+}
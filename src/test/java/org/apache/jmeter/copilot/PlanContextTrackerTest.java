@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.jmeter.control.GenericController;
+import org.apache.jmeter.testelement.TestPlan;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for PlanContextTracker class.
+ */
+@DisplayName("PlanContextTracker Tests")
+class PlanContextTrackerTest {
+
+    @Test
+    @DisplayName("should describe the whole plan first and nothing while it is unchanged")
+    void shouldDescribeWholePlanFirst() {
+        PlanContextTracker tracker = new PlanContextTracker();
+        HashTree plan = new ListedHashTree();
+        plan.add(new TestPlan("Plan")).add(controller("Login"));
+
+        String first = tracker.nextContext(PlanContextTracker.snapshot(plan));
+
+        assertThat(first)
+            .startsWith(PlanContextTracker.FULL_HEADER)
+            .contains("+ /Plan (TestPlan)", "+ /Plan/Login (GenericController)");
+        tracker.turnSucceeded();
+        assertThat(tracker.nextContext(PlanContextTracker.snapshot(plan))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should describe the same changes again after a failed turn")
+    void shouldDescribeChangesAgainAfterFailedTurn() {
+        PlanContextTracker tracker = new PlanContextTracker();
+        HashTree plan = new ListedHashTree();
+        HashTree planTree = plan.add(new TestPlan("Plan"));
+        tracker.markSeen(plan);
+        planTree.add(controller("Login"));
+
+        String context = tracker.nextContext(PlanContextTracker.snapshot(plan));
+        tracker.turnFailed();
+
+        assertThat(context).contains("+ /Plan/Login (GenericController)");
+        assertThat(tracker.nextContext(PlanContextTracker.snapshot(plan))).isEqualTo(context);
+    }
+
+    @Test
+    @DisplayName("should describe only the edits made since the plan was seen")
+    void shouldDescribeOnlyEdits() {
+        PlanContextTracker tracker = new PlanContextTracker();
+        HashTree plan = new ListedHashTree();
+        HashTree planTree = plan.add(new TestPlan("Plan"));
+        GenericController login = controller("Login");
+        planTree.add(login);
+        planTree.add(controller("Search"));
+        tracker.markSeen(plan);
+
+        login.setProperty("GenericController.comment", "Retry on failure");
+        planTree.remove(planTree.list().stream()
+            .filter(element -> element != login).findFirst().orElseThrow());
+        String context = tracker.nextContext(PlanContextTracker.snapshot(plan));
+
+        assertThat(context).isEqualTo(PlanContextTracker.DIFF_HEADER + "\n"
+            + "~ /Plan/Login: GenericController.comment=Retry on failure\n"
+            + "- /Plan/Search\n\n");
+        assertThat(context).doesNotContain("TestPlan");
+
+        tracker.reset();
+        assertThat(tracker.nextContext(PlanContextTracker.snapshot(plan))).startsWith(PlanContextTracker.FULL_HEADER);
+    }
+
+    private static GenericController controller(String name) {
+        GenericController controller = new GenericController();
+        controller.setName(name);
+        return controller;
+    }
+}
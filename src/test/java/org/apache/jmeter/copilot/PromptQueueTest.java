@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for PromptQueue class.
+ */
+@DisplayName("PromptQueue Tests")
+class PromptQueueTest {
+
+    private List<String> sent;
+    private PromptQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        sent = new ArrayList<>();
+        queue = new PromptQueue(2, entry -> {
+            sent.add(entry.prompt());
+            return CompletableFuture.completedFuture("msg-" + sent.size());
+        });
+    }
+
+    @Test
+    @DisplayName("should send right away when no turn is in progress")
+    void shouldSendRightAwayWhenIdle() {
+        CompletableFuture<String> first = queue.submit("first");
+
+        assertThat(sent).containsExactly("first");
+        assertThat(first).isCompletedWithValue("msg-1");
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("should send queued prompts in order as turns finish")
+    void shouldSendQueuedPromptsInOrder() {
+        queue.submit("first");
+        CompletableFuture<String> second = queue.submit("second");
+        queue.submit("third");
+
+        assertThat(sent).containsExactly("first");
+        assertThat(queue.entries()).extracting(PromptQueue.Entry::prompt).containsExactly("second", "third");
+        assertThat(second).isNotDone();
+
+        queue.turnFinished();
+        assertThat(sent).containsExactly("first", "second");
+        assertThat(second).isCompletedWithValue("msg-2");
+
+        queue.turnFinished();
+        queue.turnFinished();
+        assertThat(sent).containsExactly("first", "second", "third");
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("should reject prompts when the queue is full")
+    void shouldRejectPromptsWhenFull() {
+        queue.submit("first");
+        queue.submit("second");
+        queue.submit("third");
+
+        CompletableFuture<String> rejected = queue.submit("fourth");
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(rejected.handle((id, ex) -> ex)).isCompletedWithValueMatching(
+            ex -> ex instanceof RejectedExecutionException);
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should cancel a single queued prompt")
+    void shouldCancelSingleQueuedPrompt() {
+        int[] changes = {0};
+        queue.setChangeListener(() -> changes[0]++);
+        queue.submit("first");
+        CompletableFuture<String> second = queue.submit("second");
+        queue.submit("third");
+        long secondId = queue.entries().get(0).id();
+
+        assertThat(queue.cancel(secondId)).isTrue();
+        assertThat(queue.cancel(secondId)).isFalse();
+        queue.turnFinished();
+
+        assertThat(second).isCancelled();
+        assertThat(sent).containsExactly("first", "third");
+        // Two submissions, one cancel and one dispatch
+        assertThat(changes[0]).isEqualTo(4);
+    }
+}
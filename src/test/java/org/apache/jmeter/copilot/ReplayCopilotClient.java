@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.github.copilot.sdk.CopilotClient;
+import com.github.copilot.sdk.CopilotSession;
+import com.github.copilot.sdk.generated.SessionEvent;
+import com.github.copilot.sdk.generated.SessionIdleEvent;
+import com.github.copilot.sdk.json.MessageOptions;
+import com.github.copilot.sdk.json.SessionConfig;
+
+/**
+ * A {@link CopilotClient} whose sessions answer each prompt by playing back
+ * the next recorded turn, so the chat can be exercised and benchmarked
+ * offline and repeatably.
+ * <p>
+ * The SDK classes are final, so the client and its sessions are Mockito
+ * stubs; this is why the class lives with the tests and benchmarks.
+ */
+final class ReplayCopilotClient {
+
+    private ReplayCopilotClient() {
+    }
+
+    /**
+     * Creates a client replaying the recording.
+     *
+     * @param replayer the recorded turns; prompts beyond the last turn start over
+     * @param speed    how many times faster than recorded to play back
+     */
+    static CopilotClient create(SessionEventReplayer replayer, double speed) {
+        CopilotClient client = mock(CopilotClient.class);
+        AtomicInteger nextTurn = new AtomicInteger();
+        when(client.start()).thenReturn(CompletableFuture.completedFuture(null));
+        when(client.listModels()).thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(client.createSession(any(SessionConfig.class)))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(createSession(replayer, speed, nextTurn)));
+        return client;
+    }
+
+    private static CopilotSession createSession(SessionEventReplayer replayer, double speed, AtomicInteger nextTurn) {
+        CopilotSession session = mock(CopilotSession.class);
+        AtomicReference<Consumer<SessionEvent>> handler = new AtomicReference<>(event -> { });
+        AtomicReference<CompletableFuture<Void>> playback = new AtomicReference<>();
+
+        when(session.on(any())).thenAnswer(invocation -> {
+            handler.set(invocation.getArgument(0));
+            return (Closeable) () -> handler.set(event -> { });
+        });
+        when(session.send(any(MessageOptions.class))).thenAnswer(invocation -> {
+            int turn = nextTurn.getAndIncrement() % replayer.turnCount();
+            playback.set(replayer.replay(turn, event -> handler.get().accept(event), speed));
+            return CompletableFuture.completedFuture("replay-" + turn);
+        });
+        when(session.abort()).thenAnswer(invocation -> {
+            CompletableFuture<Void> current = playback.getAndSet(null);
+            if (current != null && current.cancel(false)) {
+                SessionIdleEvent idle = new SessionIdleEvent();
+                idle.setData(new SessionIdleEvent.SessionIdleEventData(true));
+                handler.get().accept(idle);
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+        when(session.setModel(any(String.class))).thenReturn(CompletableFuture.completedFuture(null));
+        doAnswer(invocation -> {
+            CompletableFuture<Void> current = playback.getAndSet(null);
+            if (current != null) {
+                current.cancel(false);
+            }
+            return null;
+        }).when(session).close();
+        return session;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for ResponseCache class.
+ */
+@DisplayName("ResponseCache Tests")
+class ResponseCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    @DisplayName("should ignore whitespace differences but not model or system prompt")
+    void shouldNormalizeKeys() {
+        String key = ResponseCache.key("Create a  login\nflow test ", "gpt-4.1", "system");
+
+        assertThat(ResponseCache.key("  Create a login flow test", "gpt-4.1", "system")).isEqualTo(key);
+        assertThat(ResponseCache.key("Create a login flow test", "claude-sonnet-4", "system")).isNotEqualTo(key);
+        assertThat(ResponseCache.key("Create a login flow test", "gpt-4.1", "other")).isNotEqualTo(key);
+    }
+
+    @Test
+    @DisplayName("should serve responses from disk after a restart")
+    void shouldServeResponsesFromDisk() {
+        String key = ResponseCache.key("Create a REST CRUD smoke test", "gpt-4.1", "system");
+        new ResponseCache(cacheDir, 10, 10, Runnable::run).put(key, "Here is your plan");
+
+        ResponseCache restarted = new ResponseCache(cacheDir, 10, 10, Runnable::run);
+
+        assertThat(restarted.get(key).join()).contains("Here is your plan");
+        assertThat(restarted.get(ResponseCache.key("Something else", "gpt-4.1", "system")).join()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should fall back to disk for entries evicted from memory")
+    void shouldFallBackToDiskAfterMemoryEviction() throws Exception {
+        ResponseCache cache = new ResponseCache(cacheDir, 1, 10, Runnable::run);
+        cache.put("first", "first response");
+        cache.put("second", "second response");
+
+        Files.delete(cacheDir.resolve("second.md"));
+
+        // "first" was evicted from memory but is still on disk, "second" is only in memory
+        assertThat(cache.get("first").join()).contains("first response");
+        assertThat(cache.get("second").join()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should evict least recently used responses from disk beyond the limit")
+    void shouldEvictFromDiskBeyondLimit() {
+        ResponseCache cache = new ResponseCache(cacheDir, 1, 2, Runnable::run);
+        cache.put("old", "old response");
+        cache.put("recent", "recent response");
+        // Reading "old" back from disk makes "recent" the least recently used
+        assertThat(cache.get("old").join()).contains("old response");
+
+        cache.put("newest", "newest response");
+
+        assertThat(cacheDir.resolve("recent.md")).doesNotExist();
+        assertThat(cacheDir.resolve("old.md")).exists();
+        assertThat(cacheDir.resolve("newest.md")).exists();
+    }
+
+    @Test
+    @DisplayName("should order responses already on disk by modification time")
+    void shouldIndexDiskByModificationTime() throws Exception {
+        ResponseCache cache = new ResponseCache(cacheDir, 10, 10, Runnable::run);
+        cache.put("old", "old response");
+        cache.put("recent", "recent response");
+        Files.setLastModifiedTime(cacheDir.resolve("old.md"), FileTime.fromMillis(1_000));
+        Files.setLastModifiedTime(cacheDir.resolve("recent.md"), FileTime.fromMillis(2_000));
+
+        new ResponseCache(cacheDir, 10, 2, Runnable::run).put("newest", "newest response");
+
+        assertThat(cacheDir.resolve("old.md")).doesNotExist();
+        assertThat(cacheDir.resolve("recent.md")).exists();
+        assertThat(cacheDir.resolve("newest.md")).exists();
+    }
+
+    @Test
+    @DisplayName("should read and write the disk only on the executor")
+    void shouldUseExecutorForDiskAccess() {
+        List<Runnable> diskTasks = new ArrayList<>();
+        ResponseCache cache = new ResponseCache(cacheDir, 10, 10, diskTasks::add);
+
+        cache.put("key", "response");
+        CompletableFuture<Optional<String>> miss = cache.get("other");
+
+        assertThat(cache.get("key")).isCompletedWithValue(Optional.of("response"));
+        assertThat(miss).isNotDone();
+        assertThat(cacheDir.resolve("key.md")).doesNotExist();
+
+        diskTasks.forEach(Runnable::run);
+
+        assertThat(miss).isCompletedWithValue(Optional.empty());
+        assertThat(cacheDir.resolve("key.md")).exists();
+    }
+}
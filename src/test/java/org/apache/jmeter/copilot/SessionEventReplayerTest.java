@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.copilot.sdk.generated.AssistantMessageDeltaEvent;
+import com.github.copilot.sdk.generated.AssistantMessageEvent;
+import com.github.copilot.sdk.generated.SessionEvent;
+import com.github.copilot.sdk.generated.SessionIdleEvent;
+
+/**
+ * Tests for SessionEventReplayer class.
+ */
+@DisplayName("SessionEventReplayer Tests")
+class SessionEventReplayerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should load recorded events with their text intact")
+    void shouldLoadRecordedEvents() throws Exception {
+        Path file = tempDir.resolve("events.tsv");
+        try (SessionEventRecorder recorder = new SessionEventRecorder(file)) {
+            recorder.promptSent("Create a plan");
+            recorder.accept(delta("Here:\n```xml\t"));
+            recorder.accept(delta("C:\\temp"));
+            recorder.accept(message("Here:\n```xml\tC:\\temp"));
+            recorder.accept(new SessionIdleEvent());
+        }
+
+        try (SessionEventReplayer replayer = SessionEventReplayer.load(file)) {
+            assertThat(replayer.turnCount()).isEqualTo(1);
+            List<SessionEventReplayer.Entry> turn = replayer.turn(0);
+            assertThat(turn).hasSize(4);
+            assertThat(((AssistantMessageDeltaEvent) turn.get(0).event()).getData().deltaContent())
+                .isEqualTo("Here:\n```xml\t");
+            assertThat(((AssistantMessageEvent) turn.get(2).event()).getData().content())
+                .isEqualTo("Here:\n```xml\tC:\\temp");
+            assertThat(turn.get(3).event()).isInstanceOf(SessionIdleEvent.class);
+            assertThat(turn).allSatisfy(entry -> assertThat(entry.delayMillis()).isNotNegative());
+        }
+    }
+
+    @Test
+    @DisplayName("should split turns at prompts and replay them faster than recorded")
+    void shouldSplitTurnsAndReplayFaster() throws Exception {
+        Path file = tempDir.resolve("events.tsv");
+        Files.write(file, List.of(
+            "0\tprompt\tFirst",
+            "200\tdelta\tA",
+            "400\tmessage\tA",
+            "401\tidle\t",
+            "5000\tprompt\tSecond",
+            "5100\tdelta\tB"));
+
+        try (SessionEventReplayer replayer = SessionEventReplayer.load(file)) {
+            assertThat(replayer.turnCount()).isEqualTo(2);
+            assertThat(replayer.turn(1).get(0).delayMillis()).isEqualTo(100);
+
+            List<SessionEvent> received = new CopyOnWriteArrayList<>();
+            long start = System.nanoTime();
+            replayer.replay(0, received::add, 10).get(5, TimeUnit.SECONDS);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(received).hasSize(3);
+            assertThat(received.get(1)).isInstanceOf(AssistantMessageEvent.class);
+            assertThat(elapsedMillis).isBetween(35L, 2000L);
+        }
+    }
+
+    @Test
+    @DisplayName("should drive the chat service through a replaying client")
+    void shouldDriveChatServiceThroughReplayingClient() throws Exception {
+        Path file = tempDir.resolve("events.tsv");
+        Files.write(file, List.of(
+            "0\tprompt\tCreate a plan",
+            "30\tdelta\tHello ",
+            "40\tdelta\tworld",
+            "50\tmessage\tHello world",
+            "51\tidle\t"));
+        Path rerecorded = tempDir.resolve("rerecorded.tsv");
+
+        try (SessionEventReplayer replayer = SessionEventReplayer.load(file)) {
+            CopilotChatService service = new CopilotChatService(
+                ReplayCopilotClient.create(replayer, Double.POSITIVE_INFINITY));
+            service.setEventRecorder(new SessionEventRecorder(rerecorded));
+            StringBuilder streamed = new StringBuilder();
+            CompletableFuture<ChatMessage> response = new CompletableFuture<>();
+            service.setStreamingHandler(streamed::append);
+            service.setMessageHandler(response::complete);
+
+            service.connect().get(5, TimeUnit.SECONDS);
+            service.submitMessage("Create a plan").get(5, TimeUnit.SECONDS);
+
+            assertThat(response.get(5, TimeUnit.SECONDS).getContent()).isEqualTo("Hello world");
+            assertThat(streamed).hasToString("Hello world");
+            // The idle event is replayed after the message handler has run
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (Files.readAllLines(rerecorded).size() < 5 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            service.close();
+        }
+
+        assertThat(Files.readAllLines(rerecorded))
+            .extracting(line -> line.split("\t")[1])
+            .containsExactly("prompt", "delta", "delta", "message", "idle");
+    }
+
+    private static AssistantMessageDeltaEvent delta(String content) {
+        AssistantMessageDeltaEvent event = new AssistantMessageDeltaEvent();
+        event.setData(new AssistantMessageDeltaEvent.AssistantMessageDeltaEventData("msg-1", content, null));
+        return event;
+    }
+
+    private static AssistantMessageEvent message(String content) {
+        AssistantMessageEvent event = new AssistantMessageEvent();
+        event.setData(new AssistantMessageEvent.AssistantMessageEventData(
+            "msg-1", content, null, null, null, null, null, null, null, null, null));
+        return event;
+    }
+}
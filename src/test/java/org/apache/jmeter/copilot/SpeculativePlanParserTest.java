@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import org.apache.jorphan.collections.HashTree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for SpeculativePlanParser class.
+ */
+@DisplayName("SpeculativePlanParser Tests")
+class SpeculativePlanParserTest {
+
+    private static final String XML = "<jmeterTestPlan><hashTree/></jmeterTestPlan>";
+
+    private JMeterXmlParser xmlParser;
+    private Queue<Runnable> tasks;
+    private SpeculativePlanParser speculativeParser;
+
+    @BeforeEach
+    void setUp() {
+        xmlParser = mock(JMeterXmlParser.class);
+        when(xmlParser.parseExtractedXml(anyString(), any(CancellationToken.class)))
+            .thenAnswer(invocation -> JMeterXmlParser.ParseResult.success(new HashTree(), invocation.getArgument(0)));
+        tasks = new ArrayDeque<>();
+        speculativeParser = new SpeculativePlanParser(xmlParser, tasks::add);
+    }
+
+    @Test
+    @DisplayName("should hand out the parsed plan once")
+    void shouldHandOutParsedPlanOnce() {
+        speculativeParser.submit(XML);
+        tasks.poll().run();
+
+        assertThat(speculativeParser.take(XML)).hasValueSatisfying(result -> {
+            assertThat(result).isDone();
+            assertThat(result.join().isSuccess()).isTrue();
+        });
+        assertThat(speculativeParser.take(XML)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should not parse the same plan twice")
+    void shouldNotParseSamePlanTwice() {
+        speculativeParser.submit(XML);
+        speculativeParser.submit(XML);
+
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("should skip a cancelled parse")
+    void shouldSkipCancelledParse() {
+        speculativeParser.submit(XML);
+        speculativeParser.cancel();
+        tasks.poll().run();
+
+        verify(xmlParser, never()).parseExtractedXml(anyString(), any(CancellationToken.class));
+        assertThat(speculativeParser.take(XML)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should stop a running parse when its turn is cancelled")
+    void shouldStopRunningParseWhenTurnIsCancelled() {
+        CancellationToken turn = new CancellationToken();
+        List<Boolean> cancelledDuringParse = new ArrayList<>();
+        when(xmlParser.parseExtractedXml(anyString(), any(CancellationToken.class))).thenAnswer(invocation -> {
+            turn.cancel();
+            cancelledDuringParse.add(invocation.<CancellationToken>getArgument(1).isCancelled());
+            return JMeterXmlParser.ParseResult.failure(JMeterXmlParser.CANCELLED_MESSAGE);
+        });
+
+        speculativeParser.submit(XML, turn);
+        tasks.poll().run();
+
+        assertThat(cancelledDuringParse).containsExactly(true);
+        assertThat(speculativeParser.take(XML)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should replace the previous plan when a new one is submitted")
+    void shouldReplacePreviousPlan() {
+        String newXml = "<jmeterTestPlan><hashTree><TestPlan/></hashTree></jmeterTestPlan>";
+
+        speculativeParser.submit(XML);
+        speculativeParser.submit(newXml);
+        tasks.forEach(Runnable::run);
+
+        verify(xmlParser, times(1)).parseExtractedXml(anyString(), any(CancellationToken.class));
+        assertThat(speculativeParser.take(XML)).isEmpty();
+        assertThat(speculativeParser.take(newXml)).isPresent();
+    }
+}
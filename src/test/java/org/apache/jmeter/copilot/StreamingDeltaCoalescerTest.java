@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for StreamingDeltaCoalescer class.
+ */
+@DisplayName("StreamingDeltaCoalescer Tests")
+class StreamingDeltaCoalescerTest {
+
+    private List<String> delivered;
+    private ConcurrentLinkedQueue<Runnable> scheduledFlushes;
+    private StreamingDeltaCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        delivered = new ArrayList<>();
+        scheduledFlushes = new ConcurrentLinkedQueue<>();
+        coalescer = new StreamingDeltaCoalescer(delivered::add, scheduledFlushes::add, 60);
+    }
+
+    @Test
+    @DisplayName("should schedule a single flush for a burst of deltas")
+    void shouldScheduleSingleFlushForBurst() {
+        coalescer.offer("Here ");
+        coalescer.offer("is ");
+        coalescer.offer("the plan");
+
+        assertThat(scheduledFlushes).hasSize(1);
+        scheduledFlushes.poll().run();
+
+        assertThat(delivered).containsExactly("Here is the plan");
+    }
+
+    @Test
+    @DisplayName("should schedule another flush for deltas arriving after a flush")
+    void shouldScheduleAnotherFlushAfterFlush() throws Exception {
+        coalescer.offer("first");
+        scheduledFlushes.poll().run();
+
+        coalescer.offer("second");
+
+        // The next flush is delayed until the frame interval has elapsed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduledFlushes.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        scheduledFlushes.poll().run();
+
+        assertThat(delivered).containsExactly("first", "second");
+    }
+
+    @Test
+    @DisplayName("should drop pending deltas when cleared")
+    void shouldDropPendingDeltasWhenCleared() {
+        coalescer.offer("stale");
+        coalescer.clear();
+
+        scheduledFlushes.poll().run();
+
+        assertThat(delivered).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should derive frame interval from max fps")
+    void shouldDeriveFrameIntervalFromMaxFps() {
+        StreamingDeltaCoalescer slow = new StreamingDeltaCoalescer(delivered::add, Runnable::run, 10);
+
+        assertThat(slow.getFrameIntervalNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+}
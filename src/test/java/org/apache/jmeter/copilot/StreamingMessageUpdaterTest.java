@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import javax.swing.JEditorPane;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for StreamingMessageUpdater class.
+ */
+@DisplayName("StreamingMessageUpdater Tests")
+class StreamingMessageUpdaterTest {
+
+    private ChatMessageRenderer renderer;
+    private JEditorPane pane;
+    private StreamingMessageUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new ChatMessageRenderer();
+        pane = renderer.createMessagePane();
+        updater = new StreamingMessageUpdater(pane, renderer);
+        pane.setText(renderer.renderMessages(List.of(
+            new ChatMessage(ChatMessage.Role.USER, "Create a test plan"))));
+    }
+
+    @Test
+    @DisplayName("should append streaming bubble after existing messages")
+    void shouldAppendStreamingBubble() throws Exception {
+        boolean updated = updater.update("Here is");
+
+        assertThat(updated).isTrue();
+        String text = documentText();
+        assertThat(text).contains("Create a test plan");
+        assertThat(text).contains("Here is");
+        assertThat(text.indexOf("Here is")).isGreaterThan(text.indexOf("Create a test plan"));
+    }
+
+    @Test
+    @DisplayName("should replace streaming bubble in place on subsequent updates")
+    void shouldReplaceStreamingBubbleInPlace() throws Exception {
+        updater.update("Here is");
+        updater.update("Here is the plan");
+        updater.update("Here is the plan you asked for");
+
+        String text = documentText();
+        assertThat(text).containsOnlyOnce("Here is");
+        assertThat(text).contains("the plan you asked for");
+        assertThat(text).containsOnlyOnce("Create a test plan");
+    }
+
+    @Test
+    @DisplayName("should insert a new bubble after the pane content is replaced")
+    void shouldInsertNewBubbleAfterReset() throws Exception {
+        updater.update("First answer");
+        pane.setText(renderer.renderMessages(List.of(
+            new ChatMessage(ChatMessage.Role.ASSISTANT, "Final answer"))));
+        updater.reset();
+
+        updater.update("Second answer");
+
+        String text = documentText();
+        assertThat(text).doesNotContain("First answer");
+        assertThat(text).contains("Final answer");
+        assertThat(text).contains("Second answer");
+    }
+
+    private String documentText() throws BadLocationException {
+        Document doc = pane.getDocument();
+        return doc.getText(0, doc.getLength());
+    }
+}
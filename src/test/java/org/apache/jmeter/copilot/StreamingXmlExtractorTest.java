@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for StreamingXmlExtractor class.
+ */
+@DisplayName("StreamingXmlExtractor Tests")
+class StreamingXmlExtractorTest {
+
+    private static final String RESPONSE = """
+        Here's your plan:
+
+        ```xml
+        <?xml version="1.0" encoding="UTF-8"?>
+        <jmeterTestPlan version="1.2">
+          <hashTree>
+            <TestPlan testname="Test"/>
+            <hashTree/>
+          </hashTree>
+        </jmeterTestPlan>
+        ```
+
+        Let me know if you need changes.
+        """;
+
+    private StreamingXmlExtractor extractor;
+
+    @BeforeEach
+    void setUp() {
+        extractor = new StreamingXmlExtractor();
+    }
+
+    @Test
+    @DisplayName("should report plan complete as soon as the closing tag streams in")
+    void shouldReportPlanCompleteOnClosingTag() {
+        int closeEnd = RESPONSE.indexOf("</jmeterTestPlan>") + "</jmeterTestPlan>".length();
+
+        boolean completedEarly = extractor.append(RESPONSE.substring(0, closeEnd - 1));
+        boolean completedOnTag = extractor.append(RESPONSE.substring(closeEnd - 1, closeEnd));
+
+        assertThat(completedEarly).isFalse();
+        assertThat(completedOnTag).isTrue();
+        assertThat(extractor.getPlanXml()).hasValueSatisfying(xml -> {
+            assertThat(xml).startsWith("<?xml");
+            assertThat(xml).endsWith("</jmeterTestPlan>");
+        });
+    }
+
+    @Test
+    @DisplayName("should match the parser's extraction when fed one character at a time")
+    void shouldMatchParserExtraction() {
+        for (char c : RESPONSE.toCharArray()) {
+            extractor.append(String.valueOf(c));
+        }
+
+        assertThat(extractor.getPlanXml()).isEqualTo(new JMeterXmlParser().extractXmlFromText(RESPONSE));
+    }
+
+    @Test
+    @DisplayName("should skip code blocks without a test plan")
+    void shouldSkipCodeBlocksWithoutTestPlan() {
+        extractor.append("Run it with:\n```bash\njmeter -n -t plan.jmx\n```\n");
+        extractor.append("```xml\n<jmeterTestPlan version=\"1.2\"><hashTree/></jmeterTestPlan>\n```");
+
+        assertThat(extractor.getPlanXml()).hasValue("<jmeterTestPlan version=\"1.2\"><hashTree/></jmeterTestPlan>");
+    }
+
+    @Test
+    @DisplayName("should extract raw XML and add a declaration")
+    void shouldExtractRawXml() {
+        extractor.append("<jmeterTestPlan version=\"1.2\"><hashTree/></jmeter");
+        extractor.append("TestPlan> and some prose");
+
+        assertThat(extractor.isPlanComplete()).isTrue();
+        assertThat(extractor.getPlanXml()).hasValueSatisfying(xml -> {
+            assertThat(xml).startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<jmeterTestPlan");
+            assertThat(xml).endsWith("</jmeterTestPlan>");
+        });
+    }
+
+    @Test
+    @DisplayName("should report a raw plan that precedes a fenced one, unlike the parser")
+    void shouldDifferFromParserWhenRawPlanComesFirst() {
+        String response = "Draft: <jmeterTestPlan version=\"1.2\"><hashTree/></jmeterTestPlan>\n"
+            + "Final:\n```xml\n<jmeterTestPlan version=\"1.3\"><hashTree/></jmeterTestPlan>\n```\n";
+
+        extractor.append(response);
+
+        assertThat(extractor.getPlanXml()).hasValueSatisfying(xml -> assertThat(xml).contains("version=\"1.2\""));
+        assertThat(new JMeterXmlParser().extractXmlFromText(response))
+            .hasValue("<jmeterTestPlan version=\"1.3\"><hashTree/></jmeterTestPlan>");
+    }
+
+    @Test
+    @DisplayName("should stop at the closing tag when the code block has trailing text, unlike the parser")
+    void shouldDifferFromParserWhenBlockHasTrailingText() {
+        String response = "```xml\n<jmeterTestPlan version=\"1.2\"><hashTree/></jmeterTestPlan>\n"
+            + "<!-- generated -->\n```\n";
+
+        extractor.append(response);
+
+        assertThat(extractor.getPlanXml()).hasValue("<jmeterTestPlan version=\"1.2\"><hashTree/></jmeterTestPlan>");
+        assertThat(new JMeterXmlParser().extractXmlFromText(response))
+            .hasValue("<jmeterTestPlan version=\"1.2\"><hashTree/></jmeterTestPlan>\n<!-- generated -->");
+    }
+
+    @Test
+    @DisplayName("should start over after reset")
+    void shouldStartOverAfterReset() {
+        extractor.append(RESPONSE);
+        extractor.reset();
+
+        assertThat(extractor.isPlanComplete()).isFalse();
+        assertThat(extractor.getPlanXml()).isEmpty();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Iterator;
+
+import org.apache.jmeter.control.GenericController;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.TestPlan;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for TestPlanDiff class.
+ */
+@DisplayName("TestPlanDiff Tests")
+class TestPlanDiffTest {
+
+    @Test
+    @DisplayName("should find no changes between equal plans")
+    void shouldFindNoChangesBetweenEqualPlans() {
+        TestPlanDiff diff = TestPlanDiff.compute(plan("Login", "Checkout"), plan("Login", "Checkout"));
+
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.summary()).isEqualTo("0 added, 0 removed, 0 modified");
+    }
+
+    @Test
+    @DisplayName("should report added, removed and modified elements with their paths")
+    void shouldReportAddedRemovedAndModifiedElements() {
+        HashTree before = plan("Login", "Search");
+        HashTree after = plan("Login", "Checkout");
+        TestElement login = findChild(after, "Login");
+        login.setProperty("GenericController.comment", "Retry on failure");
+
+        TestPlanDiff diff = TestPlanDiff.compute(before, after);
+
+        assertThat(diff.summary()).isEqualTo("1 added, 1 removed, 1 modified");
+        assertThat(diff.getChanges())
+            .extracting(TestPlanDiff.Change::kind, TestPlanDiff.Change::path)
+            .containsExactly(
+                Tuple.tuple(TestPlanDiff.Kind.MODIFIED, "/Plan/Login"),
+                Tuple.tuple(TestPlanDiff.Kind.ADDED, "/Plan/Checkout"),
+                Tuple.tuple(TestPlanDiff.Kind.REMOVED, "/Plan/Search"));
+        TestPlanDiff.Change added = diff.getChanges().get(1);
+        assertThat(added.parent()).isSameAs(before.list().iterator().next());
+        assertThat(added.index()).isEqualTo(1);
+        assertThat(diff.getChanges().get(0).properties()).containsExactly("GenericController.comment");
+    }
+
+    @Test
+    @DisplayName("should remove the unmatched one of identical siblings")
+    void shouldRemoveUnmatchedIdenticalSibling() {
+        HashTree before = plan("Think time", "Think time");
+        HashTree planTree = before.getTree(before.list().iterator().next());
+        Iterator<Object> siblings = planTree.list().iterator();
+        Object first = siblings.next();
+        Object second = siblings.next();
+
+        TestPlanDiff diff = TestPlanDiff.compute(before, plan("Think time"));
+
+        assertThat(diff.summary()).isEqualTo("0 added, 1 removed, 0 modified");
+        assertThat(diff.getChanges().get(0).before()).isSameAs(second).isNotSameAs(first);
+    }
+
+    private static HashTree plan(String... controllers) {
+        TestPlan testPlan = new TestPlan("Plan");
+        HashTree tree = new ListedHashTree();
+        HashTree planTree = tree.add(testPlan);
+        for (String name : controllers) {
+            GenericController controller = new GenericController();
+            controller.setName(name);
+            planTree.add(controller);
+        }
+        return tree;
+    }
+
+    private static TestElement findChild(HashTree tree, String name) {
+        HashTree planTree = tree.getTree(tree.list().iterator().next());
+        return planTree.list().stream()
+            .map(TestElement.class::cast)
+            .filter(element -> name.equals(element.getName()))
+            .findFirst()
+            .orElseThrow();
+    }
+}
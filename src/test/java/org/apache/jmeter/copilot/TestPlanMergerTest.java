@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.copilot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jmeter.control.GenericController;
+import org.apache.jmeter.gui.GuiPackage;
+import org.apache.jmeter.gui.tree.JMeterTreeModel;
+import org.apache.jmeter.gui.tree.JMeterTreeNode;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.TestPlan;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for TestPlanMerger class.
+ */
+@DisplayName("TestPlanMerger Tests")
+class TestPlanMergerTest {
+
+    private JMeterTreeModel treeModel;
+    private GuiPackage guiPackage;
+    private GenericController login;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        treeModel = new JMeterTreeModel(new Object());
+        JMeterTreeNode planNode = treeModel.addComponent(new TestPlan("Plan"), (JMeterTreeNode) treeModel.getRoot());
+        login = controller("Login");
+        treeModel.addComponent(login, planNode);
+        treeModel.addComponent(controller("Search"), planNode);
+        treeModel.addComponent(controller("Checkout"), planNode);
+        guiPackage = mock(GuiPackage.class);
+        when(guiPackage.getTreeModel()).thenReturn(treeModel);
+    }
+
+    @Test
+    @DisplayName("should apply additions, removals and modifications of a complete plan in place")
+    void shouldMergeCompletePlan() throws Exception {
+        GenericController generatedLogin = controller("Login");
+        generatedLogin.setProperty("GenericController.comment", "Retry on failure");
+
+        TestPlanMerger.Result result = TestPlanMerger.merge(guiPackage,
+            plan("Plan", generatedLogin, controller("Search"), controller("Payment")));
+
+        assertThat(result.summary()).isEqualTo("1 added, 1 removed, 1 modified");
+        assertThat(childNames()).containsExactly("Login", "Search", "Payment");
+        // The existing element is updated rather than replaced
+        assertThat(planChildren().get(0)).isSameAs(login);
+        assertThat(login.getPropertyAsString("GenericController.comment")).isEqualTo("Retry on failure");
+    }
+
+    @Test
+    @DisplayName("should keep elements missing from a generated fragment")
+    void shouldKeepElementsMissingFromFragment() throws Exception {
+        HashTree fragment = new ListedHashTree();
+        fragment.add(controller("Payment"));
+
+        TestPlanMerger.Result result = TestPlanMerger.merge(guiPackage, fragment);
+
+        assertThat(result.applied().summary()).isEqualTo("1 added, 0 removed, 0 modified");
+        assertThat(result.kept()).isEqualTo(3);
+        assertThat(childNames()).containsExactly("Login", "Search", "Checkout", "Payment");
+    }
+
+    @Test
+    @DisplayName("should add fragment elements after the sibling they follow in the fragment")
+    void shouldAddFragmentElementsAfterMatchedSibling() throws Exception {
+        HashTree fragment = new ListedHashTree();
+        fragment.add(controller("Search"));
+        fragment.add(controller("Filter"));
+        fragment.add(controller("Sort"));
+
+        TestPlanMerger.merge(guiPackage, fragment);
+
+        assertThat(childNames()).containsExactly("Login", "Search", "Filter", "Sort", "Checkout");
+    }
+
+    @Test
+    @DisplayName("should not remove anything when the generated plan has another name")
+    void shouldNotRemoveFromDifferentlyNamedPlan() throws Exception {
+        TestPlanMerger.Result result = TestPlanMerger.merge(guiPackage, plan("Other plan", controller("Search")));
+
+        assertThat(result.applied().isEmpty()).isTrue();
+        assertThat(result.kept()).isEqualTo(2);
+        assertThat(childNames()).containsExactly("Login", "Search", "Checkout");
+    }
+
+    private List<TestElement> planChildren() {
+        JMeterTreeNode planNode = (JMeterTreeNode) ((JMeterTreeNode) treeModel.getRoot()).getChildAt(0);
+        List<TestElement> children = new ArrayList<>();
+        for (int i = 0; i < planNode.getChildCount(); i++) {
+            children.add(((JMeterTreeNode) planNode.getChildAt(i)).getTestElement());
+        }
+        return children;
+    }
+
+    private List<String> childNames() {
+        return planChildren().stream().map(TestElement::getName).toList();
+    }
+
+    private static HashTree plan(String name, TestElement... children) {
+        HashTree tree = new ListedHashTree();
+        HashTree planTree = tree.add(new TestPlan(name));
+        for (TestElement child : children) {
+            planTree.add(child);
+        }
+        return tree;
+    }
+
+    private static GenericController controller(String name) {
+        GenericController controller = new GenericController();
+        controller.setName(name);
+        return controller;
+    }
+}